@@ -0,0 +1,160 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.NegativeChecker;
+import algorithms.PTA;
+import algorithms.ParallelChecker;
+import algorithms.RPNI;
+import automaton.Automaton;
+import automaton.FrozenAutomaton;
+import automaton.MCAAutomaton;
+import examples.ExampleTree;
+import examples.Examples;
+import examples.Generator;
+import exceptions.UndefinedFirstStateException;
+import exceptions.UnknownStateException;
+import loaders.Loader;
+import writers.TraceListener;
+
+/**
+ * Benchmarks of the learning steps over examples drawn by the Generator. The size of the corpus is given by the parameters,
+ * for example: java -jar target/benchmarks.jar -p positives=2000 -p alphabet=4
+ * Nothing is traced.
+ * @author Romain
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LearningBenchmark {
+
+	@Param({"200"})
+	public int positives;
+	@Param({"200"})
+	public int negatives;
+	@Param({"2", "4"})
+	public int alphabet;
+	@Param({"10"})
+	public int targetStates;
+	@Param({"0.5"})
+	public double accepting;
+	@Param({"12"})
+	public int maxLength;
+	@Param({"1"})
+	public long seed;
+
+	private File positive;
+	private MCAAutomaton mca;
+	private Automaton pta;
+	private Examples neg;
+	private ExampleTree tree;
+	private Automaton hyp;
+	private FrozenAutomaton frozen;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException, UnknownStateException, UndefinedFirstStateException {
+		positive = File.createTempFile("rpni", "+");
+		File negative = File.createTempFile("rpni", "-");
+		positive.deleteOnExit();
+		negative.deleteOnExit();
+		new Generator(seed, targetStates, alphabet, accepting).generate(positives, negatives, Generator.Lengths.uniform(1, maxLength), positive, negative);
+		mca = Loader.loadMCA(positive);
+		pta = PTA.pta(mca.clone(), TraceListener.NONE);
+		neg = Loader.loadExamples(negative, pta.getAlphabet());
+		tree = new ExampleTree(neg, pta.getAlphabet());
+		hyp = RPNI.rpni(pta, neg, TraceListener.NONE);
+		frozen = hyp.freeze();
+	}
+
+	/**
+	 * Reads the positive examples, one automaton per example.
+	 */
+	@Benchmark
+	public MCAAutomaton loadMCA() throws UnknownStateException {
+		return Loader.loadMCA(positive);
+	}
+
+	/**
+	 * Merges the MCA into the PTA, the MCA is cloned first as the algorithm modifies it.
+	 */
+	@Benchmark
+	public Automaton pta() throws UndefinedFirstStateException {
+		return PTA.pta(mca.clone(), TraceListener.NONE);
+	}
+
+	/**
+	 * Learns from the PTA, RPNI works on its own copy of it.
+	 */
+	@Benchmark
+	public Automaton rpni() throws UndefinedFirstStateException {
+		return RPNI.rpni(pta, neg, TraceListener.NONE);
+	}
+
+	@Benchmark
+	public Automaton cloneAutomaton() {
+		return pta.clone();
+	}
+
+	/**
+	 * Tests every negative example on the learned automaton.
+	 */
+	@Benchmark
+	public NegativeChecker negativeTest() throws UndefinedFirstStateException {
+		return new NegativeChecker(hyp, tree);
+	}
+
+	/**
+	 * Tests every negative example on the frozen learned automaton, in shards on the common pool.
+	 */
+	@Benchmark
+	public int parallelNegativeTest() {
+		return ParallelChecker.findAccepted(frozen, neg, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Determinizes the MCA once all the first states have been merged together.
+	 */
+	@Benchmark
+	public Automaton determinize(Merged merged) throws UndefinedFirstStateException {
+		merged.auto.determinize();
+		return merged.auto;
+	}
+
+	/**
+	 * The MCA with all its first states merged, built again before every call as determinize modifies it.
+	 */
+	@State(Scope.Thread)
+	public static class Merged {
+		private Automaton auto;
+
+		@Setup(Level.Invocation)
+		public void setup(LearningBenchmark b) throws UndefinedFirstStateException {
+			MCAAutomaton m = b.mca.clone();
+			auto = m.getAutos().get(0);
+			for(int i = 1; i < m.getAutos().size(); i++) {
+				Automaton a = m.getAutos().get(i);
+				auto.mergeOut(auto.getFirst(), a.getFirst(), a);
+			}
+		}
+	}
+}
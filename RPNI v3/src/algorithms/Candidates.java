@@ -0,0 +1,243 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import automaton.Automaton;
+import automaton.State;
+import examples.ExampleTree;
+import exceptions.UndefinedFirstStateException;
+import writers.TraceBuffer;
+import writers.TraceListener;
+
+/**
+ * Tries the mergers of a blue state with every red state at once on a fork join pool.
+ * Every task works on a replica of the hypothesis with its own negative checker, the merger is rolled back once tested.
+ * The hypothesis itself isn't modified: the candidates before the first one that passes only need to be traced,
+ * and the one that passes is merged in the hypothesis as it would have been without the pool.
+ * The replicas are kept from one blue state to the next, and catch up with the changes made to the hypothesis
+ * before they are used again.
+ * @author Romain
+ *
+ */
+class Candidates {
+	/**
+	 * Code of the blue state of a change that only sets the red state red.
+	 */
+	private static final int NONE = -1;
+	/**
+	 * The pool the candidates are tried on.
+	 */
+	private ForkJoinPool pool;
+	/**
+	 * The hypothesis as it was when the object was made, every replica is a copy of it.
+	 * It isn't modified anymore, so it can be copied by every task at once.
+	 */
+	private Automaton base;
+	/**
+	 * The negative examples.
+	 */
+	private ExampleTree tree;
+	/**
+	 * Changes made to the hypothesis since, as pairs of codes. Read by the tasks while new changes are added.
+	 */
+	private List<int[]> changes;
+	/**
+	 * Replicas that aren't used by a task.
+	 */
+	private Queue<Replica> idle;
+	/**
+	 * Index of the first red state that passed in the last evaluation, the number of red states if none did.
+	 */
+	private int first;
+	/**
+	 * Moves made by every merger in the last evaluation, null when not traced.
+	 */
+	private TraceBuffer[] traces;
+
+	/**
+	 * Constructor for the Candidates class.
+	 * @param pool
+	 * @param hyp The hypothesis, every change made to it afterwards has to be given with merged and red.
+	 * @param tree The negative examples.
+	 */
+	Candidates(ForkJoinPool pool, Automaton hyp, ExampleTree tree) {
+		this.pool = pool;
+		this.base = hyp.clone();
+		this.base.setTraceListener(TraceListener.NONE);
+		this.tree = tree;
+		this.changes = new CopyOnWriteArrayList<>();
+		this.idle = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * The merger of the blue state into the red state has been kept in the hypothesis.
+	 * @param red
+	 * @param blue
+	 */
+	void merged(State red, State blue) {
+		changes.add(new int[] {red.getCode(), blue.getCode()});
+	}
+
+	/**
+	 * The state has been set red in the hypothesis.
+	 * @param s
+	 */
+	void red(State s) {
+		changes.add(new int[] {s.getCode(), NONE});
+	}
+
+	/**
+	 * Tries to merge the blue state with every red state, and waits until the first one that passes is known.
+	 * The hypothesis must not be modified meanwhile.
+	 * @param red The red states, in the order they would be tried. They all have to be in the hypothesis.
+	 * @param blue
+	 * @param traced Keeps the moves made by the mergers.
+	 */
+	void evaluate(List<State> red, State blue, boolean traced) {
+		TraceBuffer[] buffers = traced ? new TraceBuffer[red.size()] : null;
+		/*
+		 * Lowest index that has passed so far. The mergers after it don't need to be tried anymore.
+		 */
+		AtomicInteger best = new AtomicInteger(red.size());
+		List<ForkJoinTask<Boolean>> tasks = new ArrayList<>();
+		for(int i = 0; i < red.size(); i++) {
+			int index = i;
+			int r = red.get(i).getCode();
+			int b = blue.getCode();
+			tasks.add(pool.submit(() -> {
+				if(index > best.get()) return false;
+				TraceListener trace = TraceListener.NONE;
+				if(buffers != null) {
+					buffers[index] = new TraceBuffer();
+					trace = buffers[index];
+				}
+				boolean passed = test(r, b, trace);
+				if(passed) best.accumulateAndGet(index, Math::min);
+				return passed;
+			}));
+		}
+		/*
+		 * A task is only skipped when one before it has passed, so the first that passes is found in order.
+		 * The tasks after it may still be running, they only use their own replica.
+		 */
+		first = red.size();
+		for(int i = 0; i < tasks.size(); i++) {
+			if(tasks.get(i).join()) {
+				first = i;
+				break;
+			}
+		}
+		for(int i = first + 1; i < tasks.size(); i++) {
+			tasks.get(i).cancel(false);
+		}
+		traces = buffers;
+	}
+
+	/**
+	 * Merges the red state with the blue state in a replica, then tests it and rolls it back.
+	 * @param red Code of the red state.
+	 * @param blue Code of the blue state.
+	 * @param trace Receives the moves made by the merger.
+	 * @return boolean: true if the merger doesn't accept any negative example, false otherwise.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	private boolean test(int red, int blue, TraceListener trace) throws UndefinedFirstStateException {
+		Replica rep = idle.poll();
+		if(rep == null) rep = new Replica();
+		rep.catchUp();
+		Automaton auto = rep.auto;
+		auto.setTraceListener(trace);
+		auto.startRecording();
+		State r = auto.getStateFromCode(red);
+		State b = auto.getStateFromCode(blue);
+		trace.move("MG", () -> "Merging {" + r.getId() + "} with {" + b.getId() + "}", r.getCode(), b.getCode());
+		boolean passed = rep.merge(red, blue);
+		auto.rollback();
+		rep.checker.rollback();
+		auto.setTraceListener(TraceListener.NONE);
+		idle.add(rep);
+		return passed;
+	}
+
+	/**
+	 * Has the merger with the red state at index i failed in the last evaluation ?
+	 * The mergers after the first one that passes haven't been tried, they aren't known to fail.
+	 * @param i
+	 * @return boolean
+	 */
+	boolean failed(int i) {
+		return i < first;
+	}
+
+	/**
+	 * Gives the moves made by the merger with the red state at index i in the last evaluation to the listener.
+	 * @param i
+	 * @param to
+	 */
+	void replay(int i, TraceListener to) {
+		if(traces != null && traces[i] != null) traces[i].replay(to);
+	}
+
+	/**
+	 * A copy of the hypothesis used by one task at a time, with its negative checker.
+	 * @author Romain
+	 *
+	 */
+	private class Replica {
+		private Automaton auto;
+		private NegativeChecker checker;
+		/**
+		 * Number of changes of the hypothesis made in the replica.
+		 */
+		private int done;
+
+		/**
+		 * Constructor for the Replica class.
+		 * @throws UndefinedFirstStateException When the first state is undefined.
+		 */
+		private Replica() throws UndefinedFirstStateException {
+			auto = base.clone();
+			checker = new NegativeChecker(auto, tree);
+			done = 0;
+		}
+
+		/**
+		 * Makes the changes of the hypothesis that haven't been made in the replica yet.
+		 */
+		private void catchUp() {
+			int size = changes.size();
+			for(; done < size; done++) {
+				int[] c = changes.get(done);
+				if(c[1] == NONE) {
+					auto.getStateFromCode(c[0]).setRed(true);
+				}else {
+					auto.startRecording();
+					merge(c[0], c[1]);
+					auto.commit();
+					checker.commit();
+				}
+			}
+		}
+
+		/**
+		 * Merges the blue state into the red state and tests the replica, as the hypothesis is.
+		 * The replica has to be recording.
+		 * @param red
+		 * @param blue
+		 * @return boolean: true if the replica doesn't accept any negative example, false otherwise.
+		 */
+		private boolean merge(int red, int blue) {
+			State r = auto.getStateFromCode(red);
+			auto.merge(r, auto.getStateFromCode(blue));
+			auto.determinize(auto.getNewState(r));
+			return auto.getNewState(r) != null && checker.test();
+		}
+	}
+}
@@ -0,0 +1,237 @@
+package algorithms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import automaton.Automaton;
+import automaton.State;
+import exceptions.UndefinedFirstStateException;
+
+/**
+ * Minimization of a deterministic automaton with Hopcroft's partition refinement, in O(n.k.log n)
+ * for n states and k symbols.
+ * The states that can't be reached from the first state are removed first.
+ * A missing transition goes to an implicit sink state that accepts nothing, the states that are equivalent to it are removed.
+ * The equivalent states are merged as RPNI merges them: the merged state keeps the code of one of them and gets all their ids.
+ * Nothing is traced.
+ * @author Romain
+ *
+ */
+public class Minimizer {
+
+	/**
+	 * Minimizes a copy of the automaton, the automaton itself isn't modified.
+	 * @param auto Has to be deterministic.
+	 * @return Automaton The smallest automaton accepting the same words.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static Automaton minimize(Automaton auto) throws UndefinedFirstStateException {
+		Automaton min = auto.clone();
+		State fr = min.getFirst();
+
+		/*
+		 * Only the states reached from the first state are kept, the others are removed with the dead states.
+		 */
+		List<State> states = min.getAllDescendants(fr);
+		states.add(fr);
+		Set<State> removed = new HashSet<>(min.getStates());
+		removed.removeAll(states);
+		/*
+		 * Numbers the states, in the order of their codes so that the result doesn't depend on the order of the map.
+		 * The sink is the last state.
+		 */
+		states.sort((s1, s2) -> Integer.compare(s1.getCode(), s2.getCode()));
+		int n = states.size() + 1;
+		int sink = n - 1;
+		int k = Math.max(1, min.getAlphabet().size());
+		Map<State, Integer> ids = new HashMap<>();
+		for(int i = 0; i < states.size(); i++) {
+			ids.put(states.get(i), i);
+		}
+		boolean[] finals = new boolean[n];
+		int[] delta = new int[n * k];
+		Arrays.fill(delta, sink);
+		for(int i = 0; i < states.size(); i++) {
+			finals[i] = states.get(i).isFinish();
+			for(var t : min.getTransitions(states.get(i))) {
+				delta[i * k + t.getKey()] = ids.get(t.getValue());
+			}
+		}
+
+		int[] block = refine(n, k, delta, finals);
+
+		/*
+		 * Every state is merged into the first state of its block, or into the first state of the automaton if it is in the block.
+		 * The states in the block of the sink can't lead to an accepting state, they are removed all at once.
+		 */
+		State[] reps = new State[n];
+		reps[block[ids.get(fr)]] = fr;
+		for(int i = 0; i < states.size(); i++) {
+			State s = states.get(i);
+			int b = block[i];
+			if(b == block[sink]) {
+				if(s != fr) removed.add(s);
+			}else if(reps[b] == null) {
+				reps[b] = s;
+			}else if(reps[b] != s) {
+				min.mergeOut(reps[b], s, min);
+			}
+		}
+		min.removeStates(removed);
+		/*
+		 * The copy has its transitions rerouted once and for all.
+		 */
+		return min.clone();
+	}
+
+	/**
+	 * Hopcroft's algorithm: splits the states in blocks of equivalent states.
+	 * Every block is a range of the array elems, a block is split by moving the states marked to the start of its range.
+	 * @param n Number of states.
+	 * @param k Number of symbols.
+	 * @param delta Transition table: the target of the state s with the symbol a is at s * k + a.
+	 * @param finals
+	 * @return int[] The block of every state, two states are equivalent if they are in the same block.
+	 */
+	private static int[] refine(int n, int k, int[] delta, boolean[] finals) {
+		/*
+		 * Predecessors of every state with every symbol, stored one after another: the predecessors of s with a
+		 * are at preds[heads[a * n + s]] to preds[heads[a * n + s + 1] - 1].
+		 */
+		int[] heads = new int[k * n + 1];
+		for(int s = 0; s < n; s++) {
+			for(int a = 0; a < k; a++) {
+				heads[a * n + delta[s * k + a] + 1]++;
+			}
+		}
+		for(int i = 0; i < k * n; i++) {
+			heads[i + 1] += heads[i];
+		}
+		int[] preds = new int[n * k];
+		int[] fill = Arrays.copyOf(heads, k * n);
+		for(int s = 0; s < n; s++) {
+			for(int a = 0; a < k; a++) {
+				preds[fill[a * n + delta[s * k + a]]++] = s;
+			}
+		}
+
+		/*
+		 * The partition: every block b is elems[first[b]] to elems[last[b] - 1], the states marked being before marked[b].
+		 * There are at most n blocks.
+		 */
+		int[] elems = new int[n];
+		int[] index = new int[n];
+		int[] block = new int[n];
+		int[] first = new int[n];
+		int[] last = new int[n];
+		int[] marked = new int[n];
+		int blocks = 0;
+		int e = 0;
+		for(int pass = 0; pass < 2; pass++) {
+			boolean f = pass == 0;
+			int start = e;
+			for(int s = 0; s < n; s++) {
+				if(finals[s] != f) continue;
+				elems[e] = s;
+				index[s] = e++;
+				block[s] = blocks;
+			}
+			if(e > start) {
+				first[blocks] = start;
+				last[blocks] = e;
+				marked[blocks] = start;
+				blocks++;
+			}
+		}
+
+		/*
+		 * The pairs (block, symbol) still to split the other blocks with, in a circular queue.
+		 * A pair is only once in the queue, there is one more cell so that a full queue isn't seen as empty.
+		 */
+		boolean[] waiting = new boolean[n * k];
+		int[] queue = new int[n * k + 1];
+		int head = 0;
+		int tail = 0;
+		if(blocks == 2) {
+			int b = last[0] - first[0] <= last[1] - first[1] ? 0 : 1;
+			for(int a = 0; a < k; a++) {
+				waiting[b * k + a] = true;
+				queue[tail++] = b * k + a;
+			}
+		}
+
+		int[] splitter = new int[n];
+		int[] touched = new int[n];
+		while(head != tail) {
+			int w = queue[head];
+			head = (head + 1) % queue.length;
+			waiting[w] = false;
+			int b = w / k;
+			int a = w % k;
+			/*
+			 * The block is copied, it may be split while its predecessors are marked.
+			 */
+			int size = last[b] - first[b];
+			System.arraycopy(elems, first[b], splitter, 0, size);
+			int count = 0;
+			for(int i = 0; i < size; i++) {
+				int q = splitter[i];
+				for(int j = heads[a * n + q]; j < heads[a * n + q + 1]; j++) {
+					int p = preds[j];
+					int c = block[p];
+					if(index[p] < marked[c]) continue;
+					if(marked[c] == first[c]) touched[count++] = c;
+					/*
+					 * Moves p to the end of the marked states of its block.
+					 */
+					int other = elems[marked[c]];
+					elems[index[p]] = other;
+					index[other] = index[p];
+					elems[marked[c]] = p;
+					index[p] = marked[c]++;
+				}
+			}
+			for(int i = 0; i < count; i++) {
+				int c = touched[i];
+				if(marked[c] == last[c]) {
+					/*
+					 * Every state of the block is marked, the block isn't split.
+					 */
+					marked[c] = first[c];
+					continue;
+				}
+				/*
+				 * The marked states become a new block.
+				 */
+				int nb = blocks++;
+				first[nb] = first[c];
+				last[nb] = marked[c];
+				marked[nb] = first[nb];
+				first[c] = last[nb];
+				marked[c] = first[c];
+				for(int j = first[nb]; j < last[nb]; j++) {
+					block[elems[j]] = nb;
+				}
+				/*
+				 * If the block was waiting, both halves have to. Otherwise the smaller half is enough.
+				 */
+				boolean smaller = last[nb] - first[nb] <= last[c] - first[c];
+				for(int x = 0; x < k; x++) {
+					int add;
+					if(waiting[c * k + x]) add = nb;
+					else add = smaller ? nb : c;
+					if(!waiting[add * k + x]) {
+						waiting[add * k + x] = true;
+						queue[tail] = add * k + x;
+						tail = (tail + 1) % queue.length;
+					}
+				}
+			}
+		}
+		return block;
+	}
+}
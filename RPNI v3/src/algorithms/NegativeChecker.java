@@ -0,0 +1,192 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import automaton.Automaton;
+import automaton.State;
+import examples.ExampleTree;
+import exceptions.UndefinedFirstStateException;
+
+/**
+ * Checks that an automaton doesn't accept any negative example, after every merger.
+ * The state reached by every node of the prefix tree of the examples is kept, so that after a merger only the nodes
+ * that reach a modified state, and the nodes under them, are browsed again.
+ * The automaton has to be recording its modifications while it is tested, and needs to be deterministic.
+ * @author Romain
+ *
+ */
+public class NegativeChecker {
+	/**
+	 * The automaton being checked.
+	 */
+	private Automaton auto;
+	/**
+	 * The negative examples.
+	 */
+	private ExampleTree tree;
+	/**
+	 * State reached by every node in the last committed automaton, null when the node can't be reached.
+	 */
+	private State[] states;
+	/**
+	 * Nodes that reach every state. The lists may still have nodes that reach another state since, they are filtered when read.
+	 */
+	private Map<State, List<Integer>> nodes;
+	/**
+	 * Nodes browsed by the last test and the state they reach now, kept until the test is committed.
+	 */
+	private int[] changedNodes;
+	private State[] changedStates;
+	private int changed;
+	/**
+	 * Stack of the nodes still to browse, and the state they reach.
+	 */
+	private int[] stackNodes;
+	private State[] stackStates;
+	/**
+	 * Last test in which every node was browsed.
+	 */
+	private int[] marks;
+	private int round;
+	/**
+	 * Example already accepted by the automaton given to the constructor, NONE if there isn't any.
+	 * Mergers only add words to the automaton, so every test fails then.
+	 */
+	private int inconsistent;
+
+	/**
+	 * Constructor for the NegativeChecker class. Browses the whole tree in the automaton once.
+	 * @param auto
+	 * @param tree The negative examples, using the alphabet of the automaton.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public NegativeChecker(Automaton auto, ExampleTree tree) throws UndefinedFirstStateException {
+		this.auto = auto;
+		this.tree = tree;
+		int size = tree.size();
+		states = new State[size];
+		nodes = new HashMap<>();
+		changedNodes = new int[size];
+		changedStates = new State[size];
+		stackNodes = new int[size];
+		stackStates = new State[size];
+		marks = new int[size];
+		round = 1;
+		inconsistent = walk(ExampleTree.ROOT, auto.getFirst(), false);
+		commit();
+	}
+
+	/**
+	 * Tests the automaton with the negative examples, since the last commit only the modified states can change the result.
+	 * @return boolean: true if the automaton doesn't accept an example, false otherwise.
+	 */
+	public boolean test() {
+		round++;
+		changed = 0;
+		if(inconsistent != ExampleTree.NONE) {
+			accepted(inconsistent);
+			return false;
+		}
+		/*
+		 * Every node that reaches a modified state has to be browsed again.
+		 */
+		List<Integer> starts = new ArrayList<>();
+		for(var s : auto.getModifiedStates()) {
+			List<Integer> list = nodes.get(s);
+			if(list == null) continue;
+			list.removeIf(n -> states[n] != s);
+			if(list.isEmpty()) nodes.remove(s);
+			else starts.addAll(list);
+		}
+		/*
+		 * A parent comes before its children, so a node that is under another one is browsed with it.
+		 * The other nodes are reached by the same path as before, the state they reach may only have been merged.
+		 */
+		Collections.sort(starts);
+		for(int n : starts) {
+			if(marks[n] == round) continue;
+			int accepted = walk(n, auto.find(states[n]), true);
+			if(accepted != ExampleTree.NONE) {
+				accepted(accepted);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Keeps the states reached during the last test, as the automaton tested is kept.
+	 */
+	public void commit() {
+		for(int i = 0; i < changed; i++) {
+			int n = changedNodes[i];
+			State s = changedStates[i];
+			if(states[n] == s) continue;
+			states[n] = s;
+			if(s != null) nodes.computeIfAbsent(s, k -> new ArrayList<>()).add(n);
+		}
+		changed = 0;
+	}
+
+	/**
+	 * Forgets the states reached during the last test, as the automaton tested has been rolled back.
+	 */
+	public void rollback() {
+		changed = 0;
+	}
+
+	/**
+	 * Browses the tree from the node start and the automaton from the state s together.
+	 * A child whose state hasn't changed isn't browsed, if something under it changed it has been modified
+	 * and is browsed on its own.
+	 * @param start
+	 * @param s May be null if the node can't be reached anymore.
+	 * @param stop Stop at the first example accepted.
+	 * @return int The first node accepted, or NONE.
+	 */
+	private int walk(int start, State s, boolean stop) {
+		int accepted = ExampleTree.NONE;
+		int top = 0;
+		stackNodes[top] = start;
+		stackStates[top++] = s;
+		while(top > 0) {
+			int n = stackNodes[--top];
+			State st = stackStates[top];
+			marks[n] = round;
+			changedNodes[changed] = n;
+			changedStates[changed++] = st;
+			if(st != null && tree.isEnd(n) && st.isFinish()) {
+				if(stop) return n;
+				if(accepted == ExampleTree.NONE) accepted = n;
+			}
+			for(int a = 0; a < tree.getWidth(); a++) {
+				int child = tree.getChild(n, a);
+				if(child == ExampleTree.NONE) continue;
+				State next = st == null ? null : auto.next(st, a);
+				if(next == states[child]) continue;
+				stackNodes[top] = child;
+				stackStates[top++] = next;
+			}
+		}
+		return accepted;
+	}
+
+	/**
+	 * Traces the example of the node n that has been accepted.
+	 * @param n
+	 */
+	private void accepted(int n) {
+		auto.getTraceListener().move("NT", () -> {
+			int[] symbols = tree.getExample(n);
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i < symbols.length; i++) {
+				sb.append(i > 0 ? "," : "").append(auto.getAlphabet().getSymbol(symbols[i]));
+			}
+			return "Example {" + sb + "} was accepted";
+		});
+	}
+}
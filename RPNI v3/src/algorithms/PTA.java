@@ -4,7 +4,8 @@ import automaton.Automaton;
 import automaton.MCAAutomaton;
 import automaton.State;
 import exceptions.UndefinedFirstStateException;
-import writers.Writer;
+import writers.TextTraceListener;
+import writers.TraceListener;
 
 /**
  * PTA algorithm.
@@ -13,16 +14,28 @@ import writers.Writer;
  */
 public class PTA {
 	/**
-	 * PTA algorithm based on the MCAAutomaton.
+	 * PTA algorithm based on the MCAAutomaton, traced in data/dat.
 	 * @param auto
 	 * @return Automaton The PTA created during the algorithm.
 	 * @throws UndefinedFirstStateException When the first state is undefined.
 	 */
 	public static Automaton pta(MCAAutomaton auto) throws UndefinedFirstStateException {
+		return pta(auto, new TextTraceListener("data/dat"));
+	}
+	
+	/**
+	 * PTA algorithm based on the MCAAutomaton.
+	 * @param auto
+	 * @param trace Receives every move, the PTA keeps it.
+	 * @return Automaton The PTA created during the algorithm.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static Automaton pta(MCAAutomaton auto, TraceListener trace) throws UndefinedFirstStateException {
 		/*
 		 * The reference automaton is the first automaton in the mca.
 		 */
 		Automaton a = auto.getAutos().get(0);
+		a.setTraceListener(trace);
 		/**
 		 * For every automaton except the first, merge and determinize.
 		 */
@@ -30,12 +43,12 @@ public class PTA {
 			pta(a, auto.getAutos().get(i));
 		}
 		/*
-		 * Write a bunch of stuff into data/dat in order to set up for the next algorithm.
+		 * Trace a bunch of stuff in order to set up for the next algorithm.
 		 */
-		Writer.write("data/dat", "FN1;PTA finished !\n");
-		Writer.write("data/dat", "ID;Setting new IDs for better clarity\n");
-		Writer.write("data/dat", "PO;Setting positions for better clarity\n");
-		Writer.write("data/dat", "FN2;Setting up for RPNI\n");
+		trace.move("FN1", () -> "PTA finished !");
+		trace.move("ID", () -> "Setting new IDs for better clarity");
+		trace.move("PO", () -> "Setting positions for better clarity");
+		trace.move("FN2", () -> "Setting up for RPNI");
 		return a;
 	}
 	
@@ -53,7 +66,7 @@ public class PTA {
 		State f1 = ref.getFirst();
 		State f2 = auto.getFirst();
 		
-		Writer.write("data/dat", "MO;Merging {" + f1.getId() + "} with {" + f2.getId() + "};" + f1.getCode() + ";" + f2.getCode() + "\n");
+		ref.getTraceListener().move("MO", () -> "Merging {" + f1.getId() + "} with {" + f2.getId() + "}", f1.getCode(), f2.getCode());
 		/*
 		 * Merge these two states.
 		 */
@@ -0,0 +1,85 @@
+package algorithms;
+
+import automaton.Alphabet;
+import automaton.Automaton;
+import automaton.State;
+import exceptions.UnknownStateException;
+
+/**
+ * Builds the PTA directly, one positive example at a time.
+ * Every example is inserted in the prefix tree by following the transitions that already exist,
+ * then adding a branch for the rest of the example. It gives the same automaton as the PTA algorithm
+ * on the MCA, without building one automaton per example and determinizing after each of them.
+ * @author Romain
+ *
+ */
+public class PTABuilder {
+	/**
+	 * The prefix tree being built.
+	 */
+	private Automaton auto;
+	/**
+	 * The first state of the prefix tree.
+	 */
+	private State first;
+
+	/**
+	 * Constructor for the PTABuilder class. The prefix tree starts with only the first state.
+	 * @param alphabet The alphabet of the examples.
+	 */
+	public PTABuilder(Alphabet alphabet) {
+		auto = new Automaton(alphabet);
+		first = new State();
+		first.setStart(true);
+		auto.addState(first);
+		auto.setFirst(first);
+	}
+
+	/**
+	 * Adds a line of the + file to the prefix tree, with a semi-colon in between each transition.
+	 * An empty line is the null example.
+	 * @param line
+	 */
+	public void addLine(String line) {
+		String[] strs = line.split(";");
+		int[] symbols = new int[line.isEmpty() ? 0 : strs.length];
+		for(int i = 0; i < symbols.length; i++) {
+			symbols[i] = auto.getAlphabet().intern(strs[i]);
+		}
+		addExample(symbols);
+	}
+
+	/**
+	 * Adds an example to the prefix tree, the symbols are indexes in the alphabet.
+	 * @param symbols
+	 */
+	public void addExample(int[] symbols) {
+		State s = first;
+		try {
+			for(int i = 0; i < symbols.length; i++) {
+				State next = auto.next(s, symbols[i]);
+				/*
+				 * If there isn't any transition yet, then a new branch starts here.
+				 */
+				if(next == null) {
+					next = new State();
+					auto.addState(next);
+					auto.connect(s, next, symbols[i]);
+				}
+				s = next;
+			}
+		} catch (UnknownStateException e) {
+			e.printStackTrace();
+		}
+		//Sets the last state of the example to be the finish
+		s.setFinish(true);
+	}
+
+	/**
+	 * A simple getter for the prefix tree.
+	 * @return Automaton
+	 */
+	public Automaton getAutomaton() {
+		return auto;
+	}
+}
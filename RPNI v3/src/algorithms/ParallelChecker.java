@@ -0,0 +1,87 @@
+package algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import automaton.Automaton;
+import automaton.FrozenAutomaton;
+import examples.Example;
+import examples.Examples;
+import exceptions.UndefinedFirstStateException;
+
+/**
+ * Checks that an automaton doesn't accept any negative example, the examples being split in shards tested at once on a pool.
+ * The shards are run on a frozen copy of the automaton, as the automaton itself can only be read from one thread.
+ * Every shard stops as soon as an example has been accepted in any shard.
+ * Meant for large sets of examples tested once, the NegativeChecker is faster to test an automaton after every merger.
+ * @author Romain
+ *
+ */
+public class ParallelChecker {
+	/**
+	 * No example has been accepted.
+	 */
+	public static final int NONE = -1;
+	/**
+	 * Minimum number of examples in a shard, smaller shards cost more to schedule than to test.
+	 */
+	private static final int MIN_SHARD = 256;
+	/**
+	 * Number of shards per thread of the pool, so that a thread that ends early can take another one.
+	 */
+	private static final int SHARDS_PER_THREAD = 4;
+
+	/**
+	 * Does the automaton accept none of the examples ? Tested on the common pool.
+	 * @param auto
+	 * @param neg The examples, using the alphabet of the automaton.
+	 * @return boolean
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static boolean consistent(Automaton auto, Examples neg) throws UndefinedFirstStateException {
+		return findAccepted(auto.freeze(), neg, ForkJoinPool.commonPool()) == NONE;
+	}
+
+	/**
+	 * Does the automaton accept none of the examples ?
+	 * @param auto
+	 * @param neg The examples, using the alphabet of the automaton.
+	 * @param pool
+	 * @return boolean
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static boolean consistent(Automaton auto, Examples neg, ForkJoinPool pool) throws UndefinedFirstStateException {
+		return findAccepted(auto.freeze(), neg, pool) == NONE;
+	}
+
+	/**
+	 * Looks for an example accepted by the automaton.
+	 * @param auto
+	 * @param neg The examples, using the alphabet of the automaton.
+	 * @param pool
+	 * @return int The index of an example accepted, not always the first one, or NONE.
+	 */
+	public static int findAccepted(FrozenAutomaton auto, Examples neg, ForkJoinPool pool) {
+		List<Example> exs = neg.getExs();
+		int shards = Math.max(1, pool.getParallelism() * SHARDS_PER_THREAD);
+		int size = Math.max(MIN_SHARD, (exs.size() + shards - 1) / shards);
+		AtomicInteger found = new AtomicInteger(NONE);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		for(int from = 0; from < exs.size(); from += size) {
+			int start = from;
+			int end = Math.min(exs.size(), from + size);
+			tasks.add(pool.submit(() -> {
+				for(int i = start; i < end && found.get() == NONE; i++) {
+					if(auto.accepts(exs.get(i).getSymbols())) found.compareAndSet(NONE, i);
+				}
+			}));
+		}
+		for(var t : tasks) {
+			t.join();
+		}
+		return found.get();
+	}
+}
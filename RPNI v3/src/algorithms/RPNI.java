@@ -3,12 +3,15 @@ package algorithms;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import automaton.Automaton;
 import automaton.State;
+import examples.ExampleTree;
 import examples.Examples;
 import exceptions.UndefinedFirstStateException;
-import writers.Writer;
+import writers.TextTraceListener;
+import writers.TraceListener;
 
 /**
  * RPNI algorithm.
@@ -17,13 +20,39 @@ import writers.Writer;
  */
 public class RPNI {
 	/**
-	 * RPNI Algorithm starting from the pta.
+	 * RPNI Algorithm starting from the pta, traced in data/dat.
 	 * @param auto
 	 * @param neg
 	 * @return Automaton The automaton created by the RPNI algorithm.
 	 * @throws UndefinedFirstStateException When the first state is undefined.
 	 */
 	public static Automaton rpni(Automaton auto, Examples neg) throws UndefinedFirstStateException {
+		return rpni(auto, neg, new TextTraceListener("data/dat"));
+	}
+	
+	/**
+	 * RPNI Algorithm starting from the pta.
+	 * @param auto
+	 * @param neg
+	 * @param trace Receives every move, the automaton created keeps it.
+	 * @return Automaton The automaton created by the RPNI algorithm.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static Automaton rpni(Automaton auto, Examples neg, TraceListener trace) throws UndefinedFirstStateException {
+		return rpni(auto, neg, trace, null);
+	}
+	
+	/**
+	 * RPNI Algorithm starting from the pta, the mergers of every blue state being tried on the pool.
+	 * Gives the same automaton as without the pool.
+	 * @param auto
+	 * @param neg
+	 * @param trace Receives every move, the automaton created keeps it.
+	 * @param pool Tries the mergers of every blue state with all the red states at once, null to try them one at a time.
+	 * @return Automaton The automaton created by the RPNI algorithm.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static Automaton rpni(Automaton auto, Examples neg, TraceListener trace, ForkJoinPool pool) throws UndefinedFirstStateException {
 		/*
 		 * Red list is the list of states that are fixed. They are our hypothesis. 
 		 */ 
@@ -34,28 +63,41 @@ public class RPNI {
 		List<State> blue = new ArrayList<>();
 		
 		/*
-		 * old_hyp is our previous automaton, in case that the new one is bad.
+		 * hyp is our hypothesis. Every merger is done directly on it while being recorded,
+		 * so that it can be rolled back if the new one is bad.
 		 */
-		Automaton old_hyp = auto.clone();
+		Automaton hyp = auto.clone();
+		hyp.setTraceListener(trace);
 		/*
 		 * Get the first state of the automaton.
 		 */
-		State fr = old_hyp.getFirst();
+		State fr = hyp.getFirst();
+		/*
+		 * The negative examples are put in a prefix tree once. After every merger, only the part of the tree
+		 * that reaches the modified states is browsed again.
+		 */
+		ExampleTree tree = new ExampleTree(neg, hyp.getAlphabet());
+		NegativeChecker checker = new NegativeChecker(hyp, tree);
 		
 		/*
 		 * Add the first state to the red list, as it is our hypothesis.
 		 */
 		red.add(fr);
+		fr.setRed(true);
 		/*
-		 * Writing a bunch of stuff to the data/dat file explaining this.
+		 * With a pool, the mergers are tried on replicas of the hypothesis, that are told every change made to it.
 		 */
-		Writer.write("data/dat", "SR;State {" + fr.getId() + "} is our hypothesis;" + fr.getCode() + ";-1\n");
-		Writer.write("data/dat", "SB2;Setting direct descendants to blue;" + fr.getCode() + ";-1\n");
+		Candidates candidates = pool == null ? null : new Candidates(pool, hyp, tree);
+		/*
+		 * Tracing a bunch of stuff explaining this.
+		 */
+		trace.move("SR", () -> "State {" + fr.getId() + "} is our hypothesis", fr.getCode(), -1);
+		trace.move("SB2", () -> "Setting direct descendants to blue", fr.getCode(), -1);
 		
 		/*
 		 * Add all descendants of red to blue. 
 		 */
-		for(var t : old_hyp.getTransitions(old_hyp.getFirst())) {
+		for(var t : hyp.getTransitions(hyp.getFirst())) {
 			blue.add(t.getValue());
 			t.getValue().setBlue(true);
 		}
@@ -68,11 +110,29 @@ public class RPNI {
 			 * Remove the first blue state from the list.
 			 */
 			State s_blue = blue.remove(0);
+			/*
+			 * The blue state may have been merged into another state since it was added to the list.
+			 * If so, there is nothing left to merge.
+			 */
+			if(hyp.getNewState(s_blue) == null) continue;
 			
 			/*
 			 * Creating a temporary list based on red, just not to lose the first list.
 			 */
 			List<State> tmp_red = new ArrayList<>(red);
+			/*
+			 * Every failed merger is rolled back, so the red states that aren't in the hypothesis anymore
+			 * can be removed at once.
+			 */
+			tmp_red.removeIf(s -> hyp.getNewState(s) == null);
+			
+			/*
+			 * With a pool, every merger is first tried on a replica. The ones that fail are only traced,
+			 * the first one that passes is done below on the hypothesis.
+			 */
+			boolean parallel = candidates != null && tmp_red.size() > 1;
+			if(parallel) candidates.evaluate(tmp_red, s_blue, trace != TraceListener.NONE);
+			int index = 0;
 			
 			/*
 			 * success is a variable that says is there has been a successful merger aka the new
@@ -88,22 +148,27 @@ public class RPNI {
 				 * Removes the first red state.
 				 */
 				State s_red= tmp_red.remove(0);
+				if(parallel && candidates.failed(index)) {
+					candidates.replay(index++, trace);
+					trace.move("RB", () -> "Rolling back to previous automaton");
+					continue;
+				}
+				index++;
 				/*
-				 * Clones the previous automaton, just to keep a back up.
-				 * hyp is our new hypothesis.
+				 * Records the modifications of the hypothesis, just to be able to roll them back.
 				 */
-				Automaton hyp = old_hyp.clone();
+				hyp.startRecording();
 				
-				
-				Writer.write("data/dat", "MG;Merging {" + s_red.getId() + "} with {" + s_blue.getId() + "};" + s_red.getCode() + ";" + s_blue.getCode() + "\n");
+				trace.move("MG", () -> "Merging {" + s_red.getId() + "} with {" + s_blue.getId() + "}", s_red.getCode(), s_blue.getCode());
 				/*
 				 * Merge red with blue.
 				 */
 				hyp.merge(s_red, s_blue);
 				/*
-				 * Determinize the created automaton.
+				 * Determinize the created automaton. As the hypothesis was deterministic before the merger,
+				 * only the merged state and the states merged while folding it need to be determinized.
 				 */
-				hyp.determinize();
+				hyp.determinize(hyp.getNewState(s_red));
 				
 				/*
 				 * Get the new state formed.
@@ -112,24 +177,29 @@ public class RPNI {
 				
 				/*
 				 * Test the automaton with the negative examples.
-				 * If the test passes, then hyp becomes our back up, add ns to red and add
+				 * If the test passes, then the modifications of hyp are kept, add ns to red and add
 				 * all descendants of ns to blue.
 				 * Else we rollback to the previous automaton.
+				 * The red state may have been merged away while determinizing, then the merger is rolled back too.
 				 */
-				if(test(hyp, neg)) {
+				if(ns != null && checker.test()) {
+					hyp.commit();
+					checker.commit();
+					if(candidates != null) candidates.merged(s_red, s_blue);
 					success = true;
 					red.add(0, ns);
 					red.remove(s_red);
-					Writer.write("data/dat", "TS;No negative examples have been accepted, this is the new hypothesis\n");
-					Writer.write("data/dat", "SB1;Setting direct descendants to blue;" + ns.getCode() + ";-1\n");
+					trace.move("TS", () -> "No negative examples have been accepted, this is the new hypothesis");
+					trace.move("SB1", () -> "Setting direct descendants to blue", ns.getCode(), -1);
 					for(var t : hyp.getTransitions(ns)) {
 						if(!red.contains(t.getValue()))
 							blue.add(t.getValue());
 					}
-					old_hyp = hyp;
 					break;
 				}else {
-					Writer.write("data/dat", "RB;Rolling back to previous automaton\n");
+					hyp.rollback();
+					checker.rollback();
+					trace.move("RB", () -> "Rolling back to previous automaton");
 					//System.out.println("TEST UNSUCCESSFUL, ROLLBACK");
 				}
 			}
@@ -141,45 +211,18 @@ public class RPNI {
 			if(!success) {
 				s_blue.setBlue(false);
 				s_blue.setRed(true);
-				Writer.write("data/dat", "SR;No possible merges for {" + s_blue.getId() + "} so adding to red;" + s_blue.getCode() + ";-1\n");
+				trace.move("SR", () -> "No possible merges for {" + s_blue.getId() + "} so adding to red", s_blue.getCode(), -1);
 				red.add(s_blue);
-				State ns = old_hyp.getNewState(s_blue);
-				Writer.write("data/dat", "SB2;Setting direct descendants to blue;" + ns.getCode() + ";-1\n");
-				for(var t : old_hyp.getTransitions(ns)) {
+				if(candidates != null) candidates.red(s_blue);
+				State ns = hyp.getNewState(s_blue);
+				trace.move("SB2", () -> "Setting direct descendants to blue", ns.getCode(), -1);
+				for(var t : hyp.getTransitions(ns)) {
 					if(!red.contains(t.getValue()))
 						blue.add(t.getValue());
 				}
 			} 
 		}
-		Writer.write("data/dat", "PO;Repositioning !\n");
-		return old_hyp;
-	}
-	
-	/**
-	 * Tests the automaton with the negative examples.
-	 * @param auto
-	 * @param exs
-	 * @return boolean: true if the automaton doesn't accept an example, false otherwise.
-	 */
-	private static boolean test(Automaton auto, Examples exs) {
-		for(var ex : exs.getExs()) {
-			String[] strs = ex.getStrs();
-			auto.goToStart();
-			for(int i = 0; i < strs.length; i++) {
-				auto.feed(strs[i]);
-			}
-			if(auto.isFinished()) {
-				//System.out.print("Example {");
-				Writer.write("data/dat", "NT;Example {");
-				for(int i = 0; i < strs.length - 1; i++) {
-					//System.out.print(strs[i] + ", ");
-					Writer.write("data/dat", strs[i] + ",");
-				}
-				//System.out.println(strs[strs.length - 1] + "} was accepted");
-				Writer.write("data/dat", strs[strs.length - 1] + "} was accepted\n");
-				return false;
-			}
-		}
-		return true;
+		trace.move("PO", () -> "Repositioning !");
+		return hyp;
 	}
 }
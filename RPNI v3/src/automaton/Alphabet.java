@@ -0,0 +1,73 @@
+package automaton;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class models the alphabet of an automaton.
+ * Every symbol (name of a transition) is interned to a small int, starting at 0, in the order they are seen.
+ * @author Romain
+ *
+ */
+public class Alphabet {
+	/**
+	 * Index of every symbol.
+	 */
+	private Map<String, Integer> indexes;
+	/**
+	 * Every symbol, stored at its index.
+	 */
+	private List<String> symbols;
+
+	/**
+	 * Constructor for the Alphabet class.
+	 */
+	public Alphabet() {
+		indexes = new HashMap<>();
+		symbols = new ArrayList<>();
+	}
+
+	/**
+	 * Returns the index of the symbol, adds the symbol to the alphabet if it isn't known yet.
+	 * @param symbol
+	 * @return int
+	 */
+	public int intern(String symbol) {
+		Integer i = indexes.get(symbol);
+		if(i == null) {
+			i = symbols.size();
+			indexes.put(symbol, i);
+			symbols.add(symbol);
+		}
+		return i;
+	}
+
+	/**
+	 * Returns the index of the symbol.
+	 * @param symbol
+	 * @return int or -1 if the symbol isn't in the alphabet.
+	 */
+	public int indexOf(String symbol) {
+		Integer i = indexes.get(symbol);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * Returns the symbol at the given index.
+	 * @param i
+	 * @return String
+	 */
+	public String getSymbol(int i) {
+		return symbols.get(i);
+	}
+
+	/**
+	 * Returns the number of symbols in the alphabet.
+	 * @return int
+	 */
+	public int size() {
+		return symbols.size();
+	}
+}
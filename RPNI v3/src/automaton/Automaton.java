@@ -1,7 +1,11 @@
 package automaton;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -9,7 +13,7 @@ import java.util.Set;
 import buffer.StateBuffer;
 import exceptions.UndefinedFirstStateException;
 import exceptions.UnknownStateException;
-import writers.Writer;
+import writers.TraceListener;
 
 /**
  * This class models an automaton.
@@ -24,7 +28,16 @@ public class Automaton {
 	 * This is the core of the automaton. It stores every states and every transition between the states.
 	 * Each state has a list of transitions to other states.
 	 */
-	private Map<State, List<Transition<String,State>>> map;
+	private Map<State, List<Transition<Integer,State>>> map;
+	/**
+	 * Every state of the automaton from its code, kept along with the map.
+	 */
+	private Map<Integer, State> codes;
+	/**
+	 * States of the automaton from their id.
+	 * Ids change without the automaton knowing it, so this is only rebuilt when a search fails.
+	 */
+	private Map<String, State> ids;
 	/**
 	 * Is the first element of the automaton.
 	 * Basically, it is the input of the automaton.
@@ -38,12 +51,44 @@ public class Automaton {
 	 * Defines a state that is out of bounds while browsing the automaton.
 	 */
 	private static final State OUT_OF_BOUNDS = new State();
+	/**
+	 * Records how to revert the modifications made to the automaton.
+	 * Is null when the automaton isn't recording.
+	 */
+	private UndoLog log;
+	/**
+	 * Keeps track of the states that have been merged into another state.
+	 * Transitions going to a merged state are only rerouted when they are read.
+	 */
+	private UnionFind merged;
+	/**
+	 * Alphabet of the automaton. The transitions are stored with the index of their name in the alphabet.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * Receives the merges done while determinizing.
+	 */
+	private TraceListener trace;
 	
 	/**
-	 * Constructor for the Automaton class.
+	 * Constructor for the Automaton class, with a new alphabet.
 	 */
 	public Automaton() {
+		this(new Alphabet());
+	}
+	
+	/**
+	 * Constructor for the Automaton class.
+	 * Automata that are merged together need to share the same alphabet.
+	 * @param alphabet
+	 */
+	public Automaton(Alphabet alphabet) {
 		map = new HashMap<>();
+		codes = new HashMap<>();
+		ids = new HashMap<>();
+		merged = new UnionFind();
+		this.alphabet = alphabet;
+		this.trace = TraceListener.NONE;
 		currentState = null;
 	}
 	
@@ -53,8 +98,8 @@ public class Automaton {
 	 */
 	public void addState(State s) {
 		if(!map.containsKey(s)) {
-			List<Transition<String,State>> list = new ArrayList<>();
-			map.put(s, list);
+			put(s, new ArrayList<>());
+			if(log != null) log.record(() -> remove(s));
 		}
 	}
 	
@@ -63,7 +108,8 @@ public class Automaton {
 	 * @return Automaton
 	 */
 	public Automaton clone() {
-		Automaton auto = new Automaton();
+		Automaton auto = new Automaton(alphabet);
+		auto.trace = trace;
 		Map<State,State> hist = new HashMap<>();
 		/*
 		 * For every state in the automaton, clone it and add it to the cloned automaton.
@@ -79,7 +125,7 @@ public class Automaton {
 		 * For every transitions of every state in the automaton, clone it and add it to the new automaton.
 		 */
 		for(var s : map.keySet()) {
-			for(var t : map.get(s)) {
+			for(var t : getTransitions(s)) {
 				try {
 					auto.connect(hist.get(s), hist.get(t.getValue()), t.getKey());
 				} catch (UnknownStateException e) {
@@ -94,15 +140,29 @@ public class Automaton {
 	/**
 	 * Connects two states together.
 	 * To be done as: connect state s1 to state s2 with condition t.
+	 * The condition is added to the alphabet if it isn't known yet.
 	 * @param s1
 	 * @param s2
 	 * @param t
 	 * @throws UnknownStateException When the state s1 or s2 is unknown to the automaton.
 	 */
 	public void connect(State s1, State s2, String t) throws UnknownStateException {
+		connect(s1, s2, alphabet.intern(t));
+	}
+	
+	/**
+	 * Connects two states together.
+	 * To be done as: connect state s1 to state s2 with the symbol t, the index of the condition in the alphabet.
+	 * @param s1
+	 * @param s2
+	 * @param t
+	 * @throws UnknownStateException When the state s1 or s2 is unknown to the automaton.
+	 */
+	public void connect(State s1, State s2, int t) throws UnknownStateException {
 		if(!map.containsKey(s1)) throw new UnknownStateException(s1.getId());
 		if(!map.containsKey(s2)) throw new UnknownStateException(s2.getId());
-		map.get(s1).add(new Transition<String,State>(t, s2));
+		save(s1);
+		map.get(s1).add(new Transition<Integer,State>(t, s2));
 	}
 	
 	/**
@@ -116,50 +176,89 @@ public class Automaton {
 	}
 	
 	/**
-	 * Determinize the automaton from any state. Buffer is used to avoid any loops that may be present.
+	 * Determinize the automaton from any state, in depth first order. Buffer is used to avoid any loops that may be present.
+	 * The states still being browsed are kept on a stack rather than in recursive calls, so that long automata can't overflow.
 	 * @param s
 	 * @param buff
 	 */
 	private void determinize(State s, StateBuffer buff) {
+		Deque<Frame> stack = new ArrayDeque<>();
+		stack.push(new Frame(enterDeterminize(s, buff)));
+		while(!stack.isEmpty()) {
+			Iterator<Transition<Integer,State>> it = stack.peek().it;
+			if(!it.hasNext()) {
+				stack.pop();
+				continue;
+			}
+			State n = find(it.next().getValue());
+			/*
+			 * Is not present in the buffer, in other word, if we haven't yet determinized the state, then do it.
+			 */
+			if(!buff.contains(n)) {
+				stack.push(new Frame(enterDeterminize(n, buff)));
+			}
+		}
+	}
+	
+	/**
+	 * Determinizes the state s when the depth first search reaches it.
+	 * @param s
+	 * @param buff
+	 * @return Iterator[Transition[Integer,State]] The transitions to follow from s once determinized.
+	 */
+	private Iterator<Transition<Integer,State>> enterDeterminize(State s, StateBuffer buff) {
 		/*
 		 * Adds the state s to the buffer, so that it is avoided in future encounters.
 		 */
 		buff.add(s);
 		/*
-		 * While the current state is not deterministic, then continue to determinize the current state.
+		 * Determinize the current state, it may have been merged into another state while doing so.
 		 */
-		while(!isDeterministic(s)) {
-			//Writes the current action to data/dat, for future use in the sequence.
-			Writer.write("data/dat", "NT;{" + s.getId() + "} is not determinized\n");
-			determinize(s);
-		}
-		
-		List<Transition<String,State>> trans = new ArrayList<>(map.get(s));
+		determinize(s);
+		s = find(s);
 		/*
-		 * For every state connected to the current state, determinize that state.
+		 * The transitions are copied, as determinizing the next states may modify them.
 		 */
-		while(!trans.isEmpty()) {
-			Transition<String,State> t = trans.remove(0);
+		return new ArrayList<>(getTransitions(s)).iterator();
+	}
+	
+	/**
+	 * Determinize the state s (removes all transition in double by merging states).
+	 * Every state that receives the transitions of a merged state may not be deterministic anymore,
+	 * so it is determinized too. If the automaton was deterministic except for the state s, then it is deterministic afterwards.
+	 * @param st
+	 */
+	public void determinize(State st) {
+		Deque<State> pending = new ArrayDeque<>();
+		pending.add(st);
+		while(!pending.isEmpty()) {
+			State s = find(pending.poll());
 			/*
-			 * Is not present in the buffer, in other word, if we haven't yet determinized the state, then do it.
+			 * While the current state is not deterministic, then continue to determinize the current state.
 			 */
-			if(!buff.contains(t.getValue())) {
-				determinize(t.getValue(), buff);
+			while(!isDeterministic(s)) {
+				//Traces the current action, for future use in the sequence.
+				State ns = s;
+				trace.move("NT", () -> "{" + ns.getId() + "} is not determinized");
+				fold(s, pending);
+				s = find(s);
 			}
 		}
 	}
 	
 	/**
-	 * This is the core of the function determinize. Determinize the state s (removes all transition in double by merging states).
+	 * This is the core of the function determinize. Merges all the states reached from the state s with the same transition.
+	 * The states that received transitions are added to pending.
 	 * @param s
+	 * @param pending
 	 */
-	private void determinize(State s) {
-		Map<String, List<State>> doubles = new HashMap<>();
+	private void fold(State s, Deque<State> pending) {
+		Map<Integer, List<State>> doubles = new HashMap<>();
 		/*
 		 * For every transition from the state s, add the "name" of the transition to the HashMap as to have a
 		 * history of what has been seen. Then store that state in the list.
 		 */
-		for(var t : map.get(s)) {
+		for(var t : getTransitions(s)) {
 			if(!doubles.containsKey(t.getKey())) {
 				doubles.put(t.getKey(), new ArrayList<>());
 			}
@@ -173,14 +272,27 @@ public class Automaton {
 		for(var str : doubles.keySet()) {
 			List<State> list = doubles.get(str);
 			/*
-			 * The reference state is the first state of the list.
+			 * The reference state is the first red state of the list, or the first state if none is red.
 			 * That means that all doubles will be merged to this state.
 			 */
 			State ref = list.get(0);
-			for(int i = 1; i < list.size(); i++) {
-				//Writes the current action to data/dat, for future use in the sequence.
-				Writer.write("data/dat", "MO;Merging {" + ref.getId() + "} with {" + list.get(i).getId() + "};" + ref.getCode() + ";" + list.get(i).getCode() + "\n");
-				mergeOut(ref, list.get(i), this);
+			for(var st : list) {
+				if(st.isRed()) {
+					ref = st;
+					break;
+				}
+			}
+			for(var st : list) {
+				/*
+				 * The previous merges may already have merged the two states together.
+				 */
+				State s1 = find(ref);
+				State s2 = find(st);
+				if(s1 == s2) continue;
+				//Traces the current action, for future use in the sequence.
+				trace.move("MO", () -> "Merging {" + s1.getId() + "} with {" + s2.getId() + "}", s1.getCode(), s2.getCode());
+				mergeOut(s1, s2, this);
+				pending.add(s1);
 			}
 		}
 	}
@@ -192,19 +304,73 @@ public class Automaton {
 	 * @param str
 	 */
 	public void feed(String str) {
+		feed(alphabet.indexOf(str));
+	}
+	
+	/**
+	 * Feeds the automaton with a symbol, the index of a transition name in the alphabet.
+	 * Moves the current state to the next state that has the transition a.
+	 * If no state is found, then the current state will be the state OUT_OF_BOUNDS. 
+	 * @param a
+	 */
+	public void feed(int a) {
+		if(!(currentState == OUT_OF_BOUNDS)) {
+			State next = next(currentState, a);
+			currentState = next == null ? OUT_OF_BOUNDS : next;
+		}
+	}
+	
+	/**
+	 * Returns the state reached from the state s with the symbol a, without moving the current state.
+	 * @param s
+	 * @param a
+	 * @return State or null if there is no such transition.
+	 */
+	public State next(State s, int a) {
 		/*
-		 * For each transition of the current state, compares the transition name and str.
-		 * If they are equal then current state will take the state pointed by the transition str.
+		 * For each transition of the state, compares the symbol of the transition and a.
+		 * If they are equal then the state pointed by the transition is the next one.
 		 */
-		if(!(currentState == OUT_OF_BOUNDS)) {
-			for(var t : map.get(currentState)) {
-				if(t.getKey().equals(str)) {
-					currentState = t.getValue();
-					return;
-				}
-			}
-			currentState = OUT_OF_BOUNDS;
+		for(var t : getTransitions(s)) {
+			if(t.getKey() == a) return t.getValue();
+		}
+		return null;
+	}
+	
+	/**
+	 * Runs the word from the first state, without moving the current state.
+	 * @param word The symbols, their index in the alphabet.
+	 * @return State The state reached, or null if the word leaves the automaton.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public State run(int[] word) throws UndefinedFirstStateException {
+		State s = getFirst();
+		for(int i = 0; i < word.length && s != null; i++) {
+			s = next(s, word[i]);
 		}
+		return s;
+	}
+	
+	/**
+	 * Is the word accepted by the automaton ? The current state isn't moved.
+	 * @param word The symbols, their index in the alphabet.
+	 * @return boolean
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public boolean accepts(int[] word) throws UndefinedFirstStateException {
+		State s = run(word);
+		return s != null && s.isFinish();
+	}
+	
+	/**
+	 * Makes a compact copy of the automaton that can't be modified, to run words from several threads at once.
+	 * The states are numbered as in the IntAutomaton.
+	 * @return FrozenAutomaton
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 * @throws IllegalStateException When the automaton isn't deterministic.
+	 */
+	public FrozenAutomaton freeze() throws UndefinedFirstStateException {
+		return new IntAutomaton(this).freeze();
 	}
 	
 	/**
@@ -219,6 +385,7 @@ public class Automaton {
 	
 	/**
 	 * This is the core of the algorithm. The buffer is used to avoid any loops in the automaton.
+	 * The states are listed in depth first order, every state before its own descendants.
 	 * @param s
 	 * @param buff
 	 * @return List[State]
@@ -229,19 +396,25 @@ public class Automaton {
 		 */
 		buff.add(s);
 		List<State> res = new ArrayList<>();
+		Deque<Iterator<Transition<Integer,State>>> stack = new ArrayDeque<>();
 		/*
 		 * Is the state s is present in the automaton, then continue the algorithm.
 		 */
-		if(map.containsKey(s)) {
+		if(map.containsKey(s)) stack.push(getTransitions(s).iterator());
+		while(!stack.isEmpty()) {
+			if(!stack.peek().hasNext()) {
+				stack.pop();
+				continue;
+			}
 			/*
-			 * For every transition from the state s, adds the state pointed by the transition to the list.
-			 * Then add every descendants of that state to the list.
+			 * Adds the state pointed by the transition to the list, then its descendants are browsed before
+			 * the next transition.
 			 */
-			for(var t : map.get(s)) {
-				if(!buff.contains(t.getValue())) {
-					res.add(t.getValue());
-					res.addAll(getAllDescendants(t.getValue(), buff));
-				}
+			State n = stack.peek().next().getValue();
+			if(!buff.contains(n)) {
+				buff.add(n);
+				res.add(n);
+				if(map.containsKey(n)) stack.push(getTransitions(n).iterator());
 			}
 		}
 		return res;
@@ -258,7 +431,10 @@ public class Automaton {
 		 * return {All States} - {All Descendants of the State s}
 		 */
 		List<State> asc = new ArrayList<>();
-		List<State> desc = this.getAllDescendants(s);
+		StateBuffer desc = new StateBuffer();
+		for(var st : this.getAllDescendants(s)) {
+			desc.add(st);
+		}
 		/*
 		 * This is the subtraction part. 
 		 */
@@ -320,18 +496,29 @@ public class Automaton {
 		/*
 		 * If the buffer contains all transitions from the state s, that means that we are at a leaf, so add 1.
 		 */
-		if(buff.containsAll(map.get(s)))
+		if(buff.containsAll(getTransitions(s)))
 			return 1;
 		/*
 		 * If it isn't a leaf, then look at every state connected to the state s, and accumulate every height.
+		 * The value of a frame is the height accumulated so far.
 		 */
-		int h = 0;
-		for(var t : map.get(s)) {
-			if(!buff.contains(t.getValue())) {
-				h += getHeight(t.getValue(), buff);
+		Deque<Frame> stack = new ArrayDeque<>();
+		stack.push(new Frame(getTransitions(s).iterator()));
+		while(true) {
+			Frame f = stack.peek();
+			if(!f.it.hasNext()) {
+				stack.pop();
+				if(stack.isEmpty()) return f.value;
+				stack.peek().value += f.value;
+				continue;
+			}
+			State n = f.it.next().getValue();
+			if(!buff.contains(n)) {
+				buff.add(n);
+				if(buff.containsAll(getTransitions(n))) f.value += 1;
+				else stack.push(new Frame(getTransitions(n).iterator()));
 			}
 		}
-		return h;
 	}
 	
 	/**
@@ -341,15 +528,7 @@ public class Automaton {
 	 * @return State or null if the function didn't find the state.
 	 */
 	public State getNewState(State s) {
-		/*
-		 * For every state in the automaton, check if the codes are similar. If so, return that state.
-		 */
-		for(var st : map.keySet()) {
-			if(st.getCode() == s.getCode()) {
-				return st;
-			}
-		}
-		return null;
+		return codes.get(s.getCode());
 	}
 	
 	/**
@@ -359,12 +538,8 @@ public class Automaton {
 	 * @throws NullPointerException If the no state has the code given in parameter.
 	 */
 	public State getStateFromCode(int code) {
-		/*
-		 * For every state in the automaton, check if that state has the same code, if so, return it.
-		 */
-		for(var s : map.keySet()) {
-			if(s.getCode() == code) return s;
-		}
+		State s = codes.get(code);
+		if(s != null) return s;
 		throw new NullPointerException("The state with code: " + code + " does not exist.");
 	}
 	
@@ -376,16 +551,48 @@ public class Automaton {
 	 * @deprecated
 	 * @throws NullPointerException When no state has the given id.
 	 */
+	@Deprecated
 	public State getStateFromId(String id) {
+		State s = ids.get(id);
 		/*
-		 * For every state in the automaton, compares the ids. If there is a match, return that state.
+		 * The state found may have changed its id, or another state may have taken the id since the index was built.
+		 * If so, the index is built again from every state in the automaton.
 		 */
-		for(var s : map.keySet()) {
-			if(id.equals(s.getId())) return s;
+		if(s == null || !id.equals(s.getId()) || codes.get(s.getCode()) != s) {
+			ids.clear();
+			for(var st : map.keySet()) {
+				ids.putIfAbsent(st.getId(), st);
+			}
+			s = ids.get(id);
 		}
+		if(s != null) return s;
 		throw new NullPointerException("The state with id: " + id + " does not exist.");
 	}
 	
+	/**
+	 * A simple getter for the trace listener.
+	 * @return TraceListener
+	 */
+	public TraceListener getTraceListener() {
+		return trace;
+	}
+	
+	/**
+	 * Sets the listener that receives the merges done while determinizing, TraceListener.NONE by default.
+	 * @param trace
+	 */
+	public void setTraceListener(TraceListener trace) {
+		this.trace = trace;
+	}
+	
+	/**
+	 * A simple getter for the alphabet.
+	 * @return Alphabet
+	 */
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+	
 	/**
 	 * A simple getter for every state in the automaton.
 	 * @return
@@ -397,10 +604,64 @@ public class Automaton {
 	/**
 	 * Returns all transitions from a given state.
 	 * @param s
-	 * @return List[Transition[String,State]]
+	 * @return List[Transition[Integer,State]]
 	 */
-	public List<Transition<String,State>> getTransitions(State s){
-		return map.get(s);
+	public List<Transition<Integer,State>> getTransitions(State s){
+		List<Transition<Integer,State>> list = map.get(s);
+		if(list != null && !merged.isEmpty()) reroute(s, list);
+		return list;
+	}
+	
+	/**
+	 * Reroutes the transitions of the state s that go to a merged state, to the state it has been merged into.
+	 * If two transitions become the same, only one is kept.
+	 * @param s
+	 * @param list
+	 */
+	private void reroute(State s, List<Transition<Integer,State>> list) {
+		boolean rerouted = false;
+		for(var t : list) {
+			State n = find(t.getValue());
+			if(n != t.getValue()) {
+				if(log != null) {
+					State old = t.getValue();
+					log.record(() -> t.setValue(old));
+				}
+				t.setValue(n);
+				rerouted = true;
+			}
+		}
+		if(rerouted) {
+			for(int i = list.size() - 1; i > 0; i--) {
+				if(indexOf(list, list.get(i)) < i) {
+					save(s);
+					list.remove(i);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns the index of the first transition in the list that has the same name and goes to the same state as t.
+	 * @param list
+	 * @param t
+	 * @return int or -1 if there is no such transition.
+	 */
+	private int indexOf(List<Transition<Integer,State>> list, Transition<Integer,State> t) {
+		for(int i = 0; i < list.size(); i++) {
+			Transition<Integer,State> tr = list.get(i);
+			if(tr.getKey().equals(t.getKey()) && tr.getValue() == t.getValue()) return i;
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the state that the state s has been merged into, or s itself when it hasn't been merged.
+	 * @param s
+	 * @return State
+	 */
+	public State find(State s) {
+		return merged.isEmpty() ? s : merged.find(s, log);
 	}
 	
 	/**
@@ -425,16 +686,26 @@ public class Automaton {
 		 * Adds the state s to the buffer in order to avoid loops.
 		 */
 		buff.add(s);
-		int max = 0;
 		/*
 		 * For every state connected to the state s, max will be equal to the maximum 
-		 * between max and the width of the next state.
+		 * between max and the width of the next state. The value of a frame is that max.
 		 */
-		for(var t : map.get(s)) {
-			if(!buff.contains(t.getValue()))
-				max = Math.max(max, getWidth(t.getValue(), buff));
+		Deque<Frame> stack = new ArrayDeque<>();
+		stack.push(new Frame(getTransitions(s).iterator()));
+		while(true) {
+			Frame f = stack.peek();
+			if(!f.it.hasNext()) {
+				stack.pop();
+				if(stack.isEmpty()) return 1 + f.value;
+				stack.peek().value = Math.max(stack.peek().value, 1 + f.value);
+				continue;
+			}
+			State n = f.it.next().getValue();
+			if(!buff.contains(n)) {
+				buff.add(n);
+				stack.push(new Frame(getTransitions(n).iterator()));
+			}
 		}
-		return 1 + max;
 	}
 	
 	/**
@@ -453,7 +724,7 @@ public class Automaton {
 		/*
 		 * trans is the histtory of all "names" of the transitions.
 		 */
-		List<String> trans = new ArrayList<>();
+		List<Integer> trans = new ArrayList<>();
 		/*
 		 * Get the state from the code, because st may not be present in the automaton.
 		 * This is just a failsafe.
@@ -464,7 +735,7 @@ public class Automaton {
 		 * If so, then it is a double so return false.
 		 * Else, put that name in the list.
 		 */
-		for(var t : map.get(s)) {
+		for(var t : getTransitions(s)) {
 			if(!trans.contains(t.getKey())) {
 				trans.add(t.getKey());
 			}else {
@@ -494,6 +765,7 @@ public class Automaton {
 	
 	/**
 	 * This is the core of the function merge, merges state st1 with st2 that may be from a different automaton.
+	 * The states are found from their codes.
 	 * @param st1
 	 * @param st2
 	 * @param parent
@@ -505,68 +777,65 @@ public class Automaton {
 		State s1 = getNewState(st1);
 		State s2 = getNewState(st2);
 		
+		mergeOut(s1, s2, parent);
+	}
+	
+	/**
+	 * Merges the state s2 into the state s1, s2 may be from a different automaton with the same alphabet.
+	 * s1 gets all the transitions of s2, and the transitions going to s2 are rerouted to s1 the next time they are read,
+	 * so that the merge doesn't need to go through every transition of the automaton.
+	 * @param s1
+	 * @param s2
+	 * @param parent
+	 */
+	public void mergeOut(State s1, State s2, Automaton parent) {
+		if(s1 == s2) return;
 		/*
-		 * Adds all the transitions of s2 to s1.
+		 * Adds all the transitions of s2 to s1, except the ones s1 already has.
 		 * Connects s1 to all states connected by s2.
 		 */
-		this.getTransitions(s1).addAll(parent.getTransitions(s2));
-		
-		/*
-		 * Get the descendants of s2.
-		 */
-		List<State> list = parent.getAllDescendants(s2);
-		/*
-		 * For every descendants, adds it if it isn't in the automaton.
-		 * Adds all transitions too. 
-		 */
-		for(var s : list) {
-			if(!map.containsKey(s)) {
-				this.addState(s);
-				this.getTransitions(s).addAll(parent.getTransitions(s));
-			}
+		save(s1);
+		List<Transition<Integer,State>> trans = this.getTransitions(s1);
+		for(var t : parent.getTransitions(s2)) {
+			if(indexOf(trans, t) < 0) trans.add(t);
 		}
 		
 		/*
-		 * For every transitions in the automaton, reroutes all connections to s2 to s1.
+		 * When s2 is from a different automaton, adds all the descendants of s2 that aren't in the automaton.
+		 * Adds all transitions too.
 		 */
-		for(var s : map.keySet()) {
-			for(var t : map.get(s)) {
-				if(t.getValue().equals(s2)) {
-					t.setValue(s1);
+		if(parent != this) {
+			List<State> list = parent.getAllDescendants(s2);
+			for(var s : list) {
+				if(!map.containsKey(s)) {
+					this.addState(s);
+					this.getTransitions(s).addAll(parent.getTransitions(s));
 				}
 			}
+			parent.removeState(s2);
+		}else {
+			/*
+			 * Removes the state s2 as it doesn't exist anymore.
+			 */
+			save(s2);
+			List<Transition<Integer,State>> list = remove(s2);
+			if(log != null) log.record(() -> put(s2, list));
 		}
 		
 		/*
-		 * Removes the state s2 as it doesn't exist anymore.
+		 * Every transition to s2 now goes to s1.
 		 */
-		parent.removeState(s2);
+		merged.union(s1, s2, log);
+		if(first == s2) {
+			if(log != null) log.record(() -> first = s2);
+			first = s1;
+		}
 		/*
 		 * Merges the two states together.
 		 */
 		s1.merge(s2);
 	}
 	
-	/**
-	 * This is only a partial merger between states.
-	 * Basically, it only merges the states outbounds of the state s2.
-	 * @param s1
-	 * @param s2
-	 * @param parent
-	 */
-	public void mergeOut(State s1, State s2, Automaton parent) {
-		this.getTransitions(s1).addAll(parent.getTransitions(s2));
-		List<State> list = parent.getAllDescendants(s2);
-		for(var s : list) {
-			if(!map.containsKey(s)) {
-				this.addState(s);
-				this.getTransitions(s).addAll(parent.getTransitions(s));
-			}
-		}
-		parent.removeState(s2);
-		s1.merge(s2);
-	}
-	
 	/**
 	 * Removes all traces of a state in the automaton.
 	 * @param state
@@ -576,9 +845,10 @@ public class Automaton {
 		 * First, we need to remove all transtions to the state s.
 		 */
 		for(var s : map.keySet()) {
-			List<Transition<String,State>> trans = map.get(s);
+			List<Transition<Integer,State>> trans = map.get(s);
 			for(int i = trans.size() - 1; i >= 0; i--) {
-				if(trans.get(i).getValue() == state) {
+				if(find(trans.get(i).getValue()) == state) {
+					save(s);
 					map.get(s).remove(trans.get(i));
 				}
 			}
@@ -586,7 +856,140 @@ public class Automaton {
 		/*
 		 * Then we remove the state in the list of states.
 		 */
-		map.remove(state);
+		if(map.containsKey(state)) save(state);
+		List<Transition<Integer,State>> list = remove(state);
+		if(log != null && list != null) log.record(() -> put(state, list));
+	}
+	
+	/**
+	 * Removes all traces of several states in the automaton, going through the transitions only once.
+	 * @param states
+	 */
+	public void removeStates(Set<State> states) {
+		if(states.isEmpty()) return;
+		/*
+		 * First, we need to remove all transtions to the states.
+		 */
+		for(var s : map.keySet()) {
+			List<Transition<Integer,State>> trans = map.get(s);
+			for(int i = trans.size() - 1; i >= 0; i--) {
+				if(states.contains(find(trans.get(i).getValue()))) {
+					save(s);
+					trans.remove(i);
+				}
+			}
+		}
+		/*
+		 * Then we remove the states in the list of states.
+		 */
+		for(var state : states) {
+			if(!map.containsKey(state)) continue;
+			save(state);
+			List<Transition<Integer,State>> list = remove(state);
+			if(log != null) log.record(() -> put(state, list));
+		}
+	}
+	
+	/**
+	 * Puts the state s in the automaton with its transitions, and indexes it.
+	 * @param s
+	 * @param list
+	 */
+	private void put(State s, List<Transition<Integer,State>> list) {
+		map.put(s, list);
+		codes.put(s.getCode(), s);
+	}
+	
+	/**
+	 * Takes the state s out of the automaton and out of the indexes.
+	 * @param s
+	 * @return List[Transition[Integer,State]] The transitions of s, or null if s wasn't in the automaton.
+	 */
+	private List<Transition<Integer,State>> remove(State s) {
+		List<Transition<Integer,State>> list = map.remove(s);
+		if(list != null) codes.remove(s.getCode());
+		return list;
+	}
+	
+	/**
+	 * Starts recording every modification made to the automaton, so that they can be reverted with rollback.
+	 */
+	public void startRecording() {
+		log = new UndoLog();
+	}
+	
+	/**
+	 * Keeps every modification made since the recording started, and stops recording.
+	 */
+	public void commit() {
+		log = null;
+	}
+	
+	/**
+	 * Reverts every modification made since the recording started, and stops recording.
+	 */
+	public void rollback() {
+		if(log != null) log.undo();
+		log = null;
+	}
+	
+	/**
+	 * Returns the states that have been modified since the recording started, the states merged into another one included.
+	 * The language of the automaton can only have changed on the paths going through these states.
+	 * @return Set[State] Empty when not recording.
+	 */
+	public Set<State> getModifiedStates() {
+		return log == null ? Collections.emptySet() : Collections.unmodifiableSet(log.getTouched());
+	}
+	
+	/**
+	 * Saves the transitions and the attributes of the state s in the log, before they get modified.
+	 * A state is only saved once, as only its first version needs to be restored.
+	 * @param s
+	 */
+	private void save(State s) {
+		if(log == null || !log.touch(s)) return;
+		List<Transition<Integer,State>> list = map.get(s);
+		List<Transition<Integer,State>> trans = new ArrayList<>(list);
+		String id = s.getId();
+		boolean isStart = s.isStart();
+		boolean isFinish = s.isFinish();
+		boolean isRed = s.isRed();
+		boolean isBlue = s.isBlue();
+		float posX = s.getPosX();
+		float posY = s.getPosY();
+		log.record(() -> {
+			list.clear();
+			list.addAll(trans);
+			s.setId(id);
+			s.setStart(isStart);
+			s.setFinish(isFinish);
+			s.setRed(isRed);
+			s.setBlue(isBlue);
+			s.setPosX(posX);
+			s.setPosY(posY);
+		});
+	}
+	
+	/**
+	 * Saves the state s in the log before its flags, id or position get modified from outside of the automaton,
+	 * so that a rollback reverts them too. Does nothing when not recording.
+	 * @param s Has to be in the automaton.
+	 */
+	public void record(State s) {
+		save(s);
+	}
+	
+	/**
+	 * Saves the first state in the log before it gets changed.
+	 */
+	private void saveFirst() {
+		if(log == null) return;
+		State old = first;
+		log.record(() -> {
+			first = old;
+			currentState = old;
+		});
 	}
 	
 	/**
@@ -594,6 +997,7 @@ public class Automaton {
 	 * @param first
 	 */
 	public void setFirst(State first) {
+		saveFirst();
 		this.first = first;
 		this.currentState = this.first;
 	}
@@ -605,6 +1009,7 @@ public class Automaton {
 		/*
 		 * For every state in the automaton, if the state is at the start, then we put that state as the first.
 		 */
+		saveFirst();
 		for(var s : map.keySet()) {
 			if(s.isStart()) {
 				first = s;
@@ -613,4 +1018,29 @@ public class Automaton {
 		}
 	}
 	
+	/**
+	 * A state being browsed by a depth first search, replacing a recursive call.
+	 * @author Romain
+	 *
+	 */
+	private static class Frame {
+		/**
+		 * The transitions of the state that are left to follow.
+		 */
+		private Iterator<Transition<Integer,State>> it;
+		/**
+		 * What is being calculated for the state, depends on the search.
+		 */
+		private int value;
+		
+		/**
+		 * Constructor for the Frame class.
+		 * @param it
+		 */
+		private Frame(Iterator<Transition<Integer,State>> it) {
+			this.it = it;
+			this.value = 0;
+		}
+	}
+	
 }
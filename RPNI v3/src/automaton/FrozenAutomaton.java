@@ -0,0 +1,158 @@
+package automaton;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An automaton that can't be modified anymore, made by Automaton.freeze or IntAutomaton.freeze.
+ * It is stored as a transition table like the IntAutomaton, with its own copy of the alphabet, and has no current state:
+ * every word is run on its own. Nothing changes after the constructor, so words can be run from several threads at once.
+ * @author Romain
+ *
+ */
+public final class FrozenAutomaton {
+
+	/**
+	 * Value of a missing transition, and of a word that leaves the automaton.
+	 */
+	public static final int NONE = -1;
+	/**
+	 * Index of every symbol.
+	 */
+	private final Map<String, Integer> indexes;
+	/**
+	 * Every symbol, stored at its index.
+	 */
+	private final String[] symbols;
+	/**
+	 * Number of columns of the table.
+	 */
+	private final int width;
+	/**
+	 * Transition table: the target of the state s with the symbol a is at s * width + a, NONE when there is no transition.
+	 */
+	private final int[] table;
+	/**
+	 * Is at the end of the automaton, for every state.
+	 */
+	private final boolean[] finals;
+	/**
+	 * The first state.
+	 */
+	private final int start;
+
+	/**
+	 * Constructor for the FrozenAutomaton class. The arrays are kept as they are, they must not be modified afterwards.
+	 * @param alphabet Copied.
+	 * @param width
+	 * @param table
+	 * @param finals
+	 * @param start
+	 */
+	FrozenAutomaton(Alphabet alphabet, int width, int[] table, boolean[] finals, int start) {
+		Map<String, Integer> map = new HashMap<>();
+		String[] syms = new String[alphabet.size()];
+		for(int a = 0; a < syms.length; a++) {
+			syms[a] = alphabet.getSymbol(a);
+			map.put(syms[a], a);
+		}
+		this.indexes = Map.copyOf(map);
+		this.symbols = syms;
+		this.width = width;
+		this.table = table;
+		this.finals = finals;
+		this.start = start;
+	}
+
+	/**
+	 * Returns the state reached from the state s with the symbol a.
+	 * @param s
+	 * @param a
+	 * @return int or NONE if there is no such transition.
+	 */
+	public int next(int s, int a) {
+		if(s == NONE || a < 0 || a >= width) return NONE;
+		return table[s * width + a];
+	}
+
+	/**
+	 * Runs the word from the first state.
+	 * @param word The symbols, their index in the alphabet.
+	 * @return int The state reached, or NONE if the word leaves the automaton.
+	 */
+	public int run(int[] word) {
+		int s = start;
+		for(int i = 0; i < word.length && s != NONE; i++) {
+			s = next(s, word[i]);
+		}
+		return s;
+	}
+
+	/**
+	 * Is the word accepted by the automaton ?
+	 * @param word The symbols, their index in the alphabet.
+	 * @return boolean
+	 */
+	public boolean accepts(int[] word) {
+		int s = run(word);
+		return s != NONE && finals[s];
+	}
+
+	/**
+	 * Is the word accepted by the automaton ? A symbol that isn't in the alphabet leaves the automaton.
+	 * @param word The names of the symbols.
+	 * @return boolean
+	 */
+	public boolean accepts(List<String> word) {
+		int s = start;
+		for(int i = 0; i < word.size() && s != NONE; i++) {
+			s = next(s, indexOf(word.get(i)));
+		}
+		return s != NONE && finals[s];
+	}
+
+	/**
+	 * Returns the index of the symbol.
+	 * @param symbol
+	 * @return int or NONE if the symbol isn't in the alphabet.
+	 */
+	public int indexOf(String symbol) {
+		Integer i = indexes.get(symbol);
+		return i == null ? NONE : i;
+	}
+
+	/**
+	 * Returns the symbol at the given index.
+	 * @param a
+	 * @return String
+	 */
+	public String getSymbol(int a) {
+		return symbols[a];
+	}
+
+	/**
+	 * Is the state s at the end of the automaton ?
+	 * @param s
+	 * @return boolean
+	 */
+	public boolean isFinish(int s) {
+		return finals[s];
+	}
+
+	/**
+	 * A simple getter for the first state.
+	 * @return int
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the number of states.
+	 * @return int
+	 */
+	public int size() {
+		return finals.length;
+	}
+}
@@ -0,0 +1,435 @@
+package automaton;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import exceptions.UndefinedFirstStateException;
+import exceptions.UnknownStateException;
+
+/**
+ * This class models an automaton in a compact way.
+ * States are ints from 0 to size() - 1, symbols are interned in an alphabet,
+ * and the transitions are stored in a single int table: the target of the state s with the symbol a is at s * width + a.
+ * Browsing the automaton is then only array lookups.
+ * @author Romain
+ *
+ */
+public class IntAutomaton {
+
+	/**
+	 * Value of a missing transition in the table, and of a state that is out of bounds while browsing the automaton.
+	 */
+	public static final int NONE = -1;
+	/**
+	 * Alphabet of the automaton.
+	 */
+	private Alphabet alphabet;
+	/**
+	 * Number of columns of the table, at least the number of symbols.
+	 */
+	private int width;
+	/**
+	 * Transition table, NONE when there is no transition.
+	 */
+	private int[] table;
+	/**
+	 * Is at the end of the automaton, for every state.
+	 */
+	private boolean[] finals;
+	/**
+	 * Number of states.
+	 */
+	private int size;
+	/**
+	 * Is the first state of the automaton.
+	 */
+	private int start;
+	/**
+	 * Used for browsing the automaton.
+	 */
+	private int currentState;
+	/**
+	 * Transitions that couldn't be put in the table because the cell already goes to another state.
+	 * Each one is stored as {state, symbol, target}.
+	 */
+	private List<int[]> doubles;
+
+	/**
+	 * Constructor for the IntAutomaton class.
+	 * @param alphabet
+	 */
+	public IntAutomaton(Alphabet alphabet) {
+		this.alphabet = alphabet;
+		this.width = Math.max(1, alphabet.size());
+		this.table = new int[0];
+		this.finals = new boolean[0];
+		this.size = 0;
+		this.start = NONE;
+		this.currentState = NONE;
+		this.doubles = new ArrayList<>();
+	}
+
+	/**
+	 * Builds the compact version of an automaton, with the alphabet of the automaton.
+	 * @param auto
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public IntAutomaton(Automaton auto) throws UndefinedFirstStateException {
+		this(auto, auto.getAlphabet());
+	}
+
+	/**
+	 * Builds the compact version of an automaton.
+	 * The first state is 0, then the states are numbered in breadth first order. The states that can't be
+	 * reached from the first state come last.
+	 * @param auto
+	 * @param alphabet Symbols that are not in the alphabet are added.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public IntAutomaton(Automaton auto, Alphabet alphabet) throws UndefinedFirstStateException {
+		this(alphabet);
+		Map<State, Integer> ids = new HashMap<>();
+		List<State> states = new ArrayList<>();
+		State fr = auto.getFirst();
+		ids.put(fr, addState());
+		states.add(fr);
+		/*
+		 * Numbers the states in breadth first order, states is used as the queue.
+		 */
+		for(int i = 0; i < states.size(); i++) {
+			for(var t : auto.getTransitions(states.get(i))) {
+				if(!ids.containsKey(t.getValue())) {
+					ids.put(t.getValue(), addState());
+					states.add(t.getValue());
+				}
+			}
+		}
+		for(var s : auto.getStates()) {
+			if(!ids.containsKey(s)) {
+				ids.put(s, addState());
+				states.add(s);
+			}
+		}
+
+		/*
+		 * Copies every transition and every end state.
+		 */
+		for(var s : states) {
+			int id = ids.get(s);
+			finals[id] = s.isFinish();
+			for(var t : auto.getTransitions(s)) {
+				try {
+					int a = alphabet == auto.getAlphabet() ? t.getKey() : alphabet.intern(auto.getAlphabet().getSymbol(t.getKey()));
+					connect(id, ids.get(t.getValue()), a);
+				} catch (UnknownStateException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		setStart(0);
+	}
+
+	/**
+	 * Adds a new state without any transition.
+	 * @return int The new state.
+	 */
+	public int addState() {
+		if(size == finals.length) {
+			int capacity = Math.max(16, 2 * size);
+			finals = Arrays.copyOf(finals, capacity);
+			table = Arrays.copyOf(table, capacity * width);
+			Arrays.fill(table, size * width, table.length, NONE);
+		}
+		return size++;
+	}
+
+	/**
+	 * Connects two states together.
+	 * To be done as: connect state s1 to state s2 with the symbol a.
+	 * If s1 already goes to another state with a, the transition is kept aside and the automaton isn't deterministic anymore.
+	 * @param s1
+	 * @param s2
+	 * @param a
+	 * @throws UnknownStateException When the state s1 or s2 is unknown to the automaton.
+	 */
+	public void connect(int s1, int s2, int a) throws UnknownStateException {
+		if(s1 < 0 || s1 >= size) throw new UnknownStateException("" + s1);
+		if(s2 < 0 || s2 >= size) throw new UnknownStateException("" + s2);
+		ensureWidth(a);
+		int cell = s1 * width + a;
+		if(table[cell] == NONE) {
+			table[cell] = s2;
+		}else if(table[cell] != s2) {
+			doubles.add(new int[] {s1, a, s2});
+		}
+	}
+
+	/**
+	 * Makes the table wide enough for the symbol a, symbols may be added to the alphabet after the automaton was created.
+	 * @param a
+	 */
+	private void ensureWidth(int a) {
+		if(a < width) return;
+		int w = Math.max(a + 1, alphabet.size());
+		int[] t = new int[finals.length * w];
+		Arrays.fill(t, NONE);
+		for(int s = 0; s < size; s++) {
+			System.arraycopy(table, s * width, t, s * w, width);
+		}
+		table = t;
+		width = w;
+	}
+
+	/**
+	 * Returns the state reached from the state s with the symbol a.
+	 * @param s
+	 * @param a
+	 * @return int or NONE if there is no such transition.
+	 */
+	public int next(int s, int a) {
+		if(s == NONE || a < 0 || a >= width) return NONE;
+		return table[s * width + a];
+	}
+
+	/**
+	 * Runs the word from the first state, without moving the current state.
+	 * Only reads the automaton, so words can be run from several threads at once as long as it isn't modified.
+	 * When the automaton isn't deterministic, the transitions kept aside aren't followed.
+	 * @param word The symbols, their index in the alphabet.
+	 * @return int The state reached, or NONE if the word leaves the automaton.
+	 */
+	public int run(int[] word) {
+		int s = start;
+		for(int i = 0; i < word.length && s != NONE; i++) {
+			s = next(s, word[i]);
+		}
+		return s;
+	}
+
+	/**
+	 * Is the word accepted by the automaton ? The current state isn't moved.
+	 * @param word The symbols, their index in the alphabet.
+	 * @return boolean
+	 */
+	public boolean accepts(int[] word) {
+		int s = run(word);
+		return s != NONE && finals[s];
+	}
+
+	/**
+	 * Sets the current state to the first state.
+	 */
+	public void goToStart() {
+		currentState = start;
+	}
+
+	/**
+	 * Feeds the automaton with a symbol.
+	 * Moves the current state to the next state, or NONE if there is no transition.
+	 * @param a
+	 */
+	public void feed(int a) {
+		currentState = next(currentState, a);
+	}
+
+	/**
+	 * Feeds the automaton with a transition name.
+	 * @param str
+	 */
+	public void feed(String str) {
+		feed(alphabet.indexOf(str));
+	}
+
+	/**
+	 * Checks if the current state is at the end or not.
+	 * Returns false when out of bounds.
+	 * @return boolean
+	 */
+	public boolean isFinished() {
+		return currentState != NONE && finals[currentState];
+	}
+
+	/**
+	 * Getter for the current state.
+	 * @return int
+	 */
+	public int getCurrentState() {
+		return currentState;
+	}
+
+	/**
+	 * Determines if the given state is deterministic or not.
+	 * @param s
+	 * @return boolean
+	 */
+	public boolean isDeterministic(int s) {
+		for(var d : doubles) {
+			if(d[0] == s) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Determines if the whole automaton is deterministic or not.
+	 * @return boolean
+	 */
+	public boolean isDeterministic() {
+		return doubles.isEmpty();
+	}
+
+	/**
+	 * Makes a copy of the automaton that can't be modified, and can be read from several threads at once.
+	 * @return FrozenAutomaton
+	 * @throws IllegalStateException When the automaton isn't deterministic, the frozen automaton only has one transition per symbol.
+	 */
+	public FrozenAutomaton freeze() {
+		if(!isDeterministic()) throw new IllegalStateException("Only a deterministic automaton can be frozen.");
+		return new FrozenAutomaton(alphabet, width, Arrays.copyOf(table, size * width), Arrays.copyOf(finals, size), start);
+	}
+
+	/**
+	 * Determinizes the automaton by merging the states reached from the same state with the same symbol.
+	 * The merges are done with a union-find over the states, then the states are renumbered so that there are no holes,
+	 * keeping the order of the states.
+	 */
+	public void determinize() {
+		if(doubles.isEmpty()) return;
+		int[] parents = new int[size];
+		for(int s = 0; s < size; s++) {
+			parents[s] = s;
+		}
+		/*
+		 * Every pair of states that has to be merged.
+		 */
+		Deque<int[]> pairs = new ArrayDeque<>();
+		for(var d : doubles) {
+			pairs.push(new int[] {table[d[0] * width + d[1]], d[2]});
+		}
+		doubles.clear();
+		while(!pairs.isEmpty()) {
+			int[] p = pairs.pop();
+			int s1 = find(parents, p[0]);
+			int s2 = find(parents, p[1]);
+			if(s1 == s2) continue;
+			/*
+			 * The smallest state stays the representative, so that the first state is kept.
+			 */
+			if(s2 < s1) {
+				int tmp = s1;
+				s1 = s2;
+				s2 = tmp;
+			}
+			parents[s2] = s1;
+			finals[s1] = finals[s1] || finals[s2];
+			/*
+			 * s1 gets the transitions of s2. If both have a transition with the same symbol, the targets need to be merged too.
+			 */
+			for(int a = 0; a < width; a++) {
+				int t2 = table[s2 * width + a];
+				if(t2 == NONE) continue;
+				int t1 = table[s1 * width + a];
+				if(t1 == NONE) table[s1 * width + a] = t2;
+				else pairs.push(new int[] {t1, t2});
+			}
+		}
+
+		/*
+		 * Renumbers the remaining states.
+		 */
+		int[] ids = new int[size];
+		int n = 0;
+		for(int s = 0; s < size; s++) {
+			if(find(parents, s) == s) ids[s] = n++;
+		}
+		int[] t = new int[n * width];
+		boolean[] f = new boolean[n];
+		for(int s = 0; s < size; s++) {
+			if(parents[s] != s) continue;
+			f[ids[s]] = finals[s];
+			for(int a = 0; a < width; a++) {
+				int target = table[s * width + a];
+				t[ids[s] * width + a] = target == NONE ? NONE : ids[find(parents, target)];
+			}
+		}
+		table = t;
+		finals = f;
+		size = n;
+		if(start != NONE) start = ids[find(parents, start)];
+		currentState = NONE;
+	}
+
+	/**
+	 * Returns the representative of the state s, with path compression.
+	 * @param parents
+	 * @param s
+	 * @return int
+	 */
+	private static int find(int[] parents, int s) {
+		int root = s;
+		while(parents[root] != root) {
+			root = parents[root];
+		}
+		while(parents[s] != root) {
+			int next = parents[s];
+			parents[s] = root;
+			s = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Is the state s at the end of the automaton ?
+	 * @param s
+	 * @return boolean
+	 */
+	public boolean isFinish(int s) {
+		return finals[s];
+	}
+
+	/**
+	 * Setter for the end of the state s.
+	 * @param s
+	 * @param isFinish
+	 */
+	public void setFinish(int s, boolean isFinish) {
+		finals[s] = isFinish;
+	}
+
+	/**
+	 * A simple getter for the first state.
+	 * @return int
+	 */
+	public int getStart() {
+		return start;
+	}
+
+	/**
+	 * Sets the first state.
+	 * @param start
+	 */
+	public void setStart(int start) {
+		this.start = start;
+		this.currentState = start;
+	}
+
+	/**
+	 * Returns the number of states.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * A simple getter for the alphabet.
+	 * @return Alphabet
+	 */
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+}
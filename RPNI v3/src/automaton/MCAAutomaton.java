@@ -10,12 +10,25 @@ public class MCAAutomaton {
 	 * List of automata from the various lines.
 	 */
 	private List<Automaton> autos;
+	/**
+	 * Alphabet shared by all automata.
+	 */
+	private Alphabet alphabet;
 	
 	/**
-	 * Contructor for the MCAAutomaton class.
+	 * Contructor for the MCAAutomaton class, with a new alphabet.
 	 */
 	public MCAAutomaton() {
+		this(new Alphabet());
+	}
+	
+	/**
+	 * Contructor for the MCAAutomaton class.
+	 * @param alphabet The alphabet that the automata added to the list use.
+	 */
+	public MCAAutomaton(Alphabet alphabet) {
 		autos = new ArrayList<>();
+		this.alphabet = alphabet;
 	}
 	
 	/**
@@ -34,6 +47,14 @@ public class MCAAutomaton {
 		return autos;
 	}
 	
+	/**
+	 * A simple getter for the alphabet.
+	 * @return Alphabet
+	 */
+	public Alphabet getAlphabet() {
+		return alphabet;
+	}
+	
 	/**
 	 * This calculates the added height of all automata in the list.
 	 * @return int
@@ -74,7 +95,7 @@ public class MCAAutomaton {
 	 * @return MCAAutomaton
 	 */
 	public MCAAutomaton clone() {
-		MCAAutomaton n = new MCAAutomaton();
+		MCAAutomaton n = new MCAAutomaton(alphabet);
 		for(var a : autos) {
 			n.addAutomaton(a.clone());
 		}
@@ -89,20 +89,29 @@ public class State {
 		isRed = isRed || s.isRed;
 	}
 	
+	/**
+	 * Copy constructor for the State class, the copy keeps the code of s.
+	 * The counter isn't touched, so that states can be copied from several threads at once.
+	 * @param s State
+	 */
+	private State(State s) {
+		this.posX = s.posX;
+		this.posY = s.posY;
+		this.id = s.id;
+		this.isVisible = s.isVisible;
+		this.isStart = s.isStart;
+		this.isFinish = s.isFinish;
+		this.code = s.code;
+		this.isBlue = s.isBlue;
+		this.isRed = s.isRed;
+	}
+	
 	/**
 	 * Clones the current state.
 	 * @return State
 	 */
 	public State clone() {
-		State s = new State(posX, posY, id);
-		s.isFinish = isFinish;
-		s.isStart = isStart;
-		s.isVisible = s.isVisible;
-		s.code = code;
-		s.isRed = isRed;
-		s.isBlue = isBlue;
-		NUM_CODE--;
-		return s;
+		return new State(this);
 	}
 	
 	/**
@@ -254,4 +263,12 @@ public class State {
 		return false;
 	}
 	
+	/**
+	 * The hash code is the code, so that it agrees with equals.
+	 * @return int
+	 */
+	public int hashCode() {
+		return code;
+	}
+	
 }
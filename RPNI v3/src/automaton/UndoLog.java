@@ -0,0 +1,67 @@
+package automaton;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class records how to undo the modifications made to an automaton.
+ * Every modification pushes the action that reverts it, so that a rollback only costs
+ * the states that have been touched since the recording started.
+ * @author Romain
+ *
+ */
+class UndoLog {
+	/**
+	 * Stack of the actions that revert the modifications, the last modification is on top.
+	 */
+	private Deque<Runnable> actions;
+	/**
+	 * States that have already been saved in the log.
+	 */
+	private Set<State> touched;
+
+	/**
+	 * Constructor for the UndoLog class.
+	 */
+	UndoLog() {
+		actions = new ArrayDeque<>();
+		touched = new HashSet<>();
+	}
+
+	/**
+	 * Records the action that reverts a modification.
+	 * @param undo
+	 */
+	void record(Runnable undo) {
+		actions.push(undo);
+	}
+
+	/**
+	 * Marks the state s as saved.
+	 * @param s
+	 * @return boolean: true if the state hadn't been saved yet, false otherwise.
+	 */
+	boolean touch(State s) {
+		return touched.add(s);
+	}
+
+	/**
+	 * A simple getter for the states that have been saved in the log.
+	 * @return Set[State]
+	 */
+	Set<State> getTouched() {
+		return touched;
+	}
+
+	/**
+	 * Reverts every recorded modification, starting with the last one.
+	 */
+	void undo() {
+		while(!actions.isEmpty()) {
+			actions.pop().run();
+		}
+		touched.clear();
+	}
+}
@@ -0,0 +1,85 @@
+package automaton;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class keeps track of the states that have been merged together (disjoint sets).
+ * Every merged state points to the state it has been merged into, and find follows these
+ * pointers up to the state that represents the whole set.
+ * Every modification is recorded in the log of the automaton when there is one, so that merges can be rolled back.
+ * @author Romain
+ *
+ */
+class UnionFind {
+	/**
+	 * For every merged state, the state it has been merged into.
+	 * A state that isn't in the map represents its own set.
+	 */
+	private Map<State, State> parents;
+
+	/**
+	 * Constructor for the UnionFind class.
+	 */
+	UnionFind() {
+		parents = new HashMap<>();
+	}
+
+	/**
+	 * Returns the state representing the set of the state s.
+	 * Every state on the way is pointed directly to the representative, so that the next search is faster.
+	 * @param s
+	 * @param log UndoLog May be null.
+	 * @return State
+	 */
+	State find(State s, UndoLog log) {
+		State root = s;
+		State next;
+		while((next = parents.get(root)) != null) {
+			root = next;
+		}
+		/*
+		 * Path compression: every state between s and the root now points to the root.
+		 */
+		while((next = parents.get(s)) != null && next != root) {
+			setParent(s, root, log);
+			s = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Merges the set of the state s into the set of the state root.
+	 * Both states have to represent their own set, root stays the representative.
+	 * @param root
+	 * @param s
+	 * @param log UndoLog May be null.
+	 */
+	void union(State root, State s, UndoLog log) {
+		if(root != s) setParent(s, root, log);
+	}
+
+	/**
+	 * Is there no merged state at all ?
+	 * @return boolean
+	 */
+	boolean isEmpty() {
+		return parents.isEmpty();
+	}
+
+	/**
+	 * Points the state s to the state p, and records how to revert it.
+	 * @param s
+	 * @param p
+	 * @param log
+	 */
+	private void setParent(State s, State p, UndoLog log) {
+		State old = parents.put(s, p);
+		if(log != null) {
+			log.record(() -> {
+				if(old == null) parents.remove(s);
+				else parents.put(s, old);
+			});
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package buffer;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import automaton.State;
@@ -10,17 +11,26 @@ import automaton.Transition;
  * The aim of this class is to be used as a buffer.
  * What it does is that we add States and then we check if a State is in the buffer.
  * Very useful for recursive functions to avoid loops.
+ * The states are marked in a bitset by their code, so checking a state doesn't depend on the size of the buffer.
  * @author Romain
  *
  */
 public class StateBuffer {
+	/**
+	 * The states in the order they were added.
+	 */
 	private List<State> buffer;
+	/**
+	 * The codes of the states in the buffer.
+	 */
+	private BitSet codes;
 	
 	/**
 	 * Constructor for the StateBuffer class
 	 */
 	public StateBuffer() {
 		buffer = new ArrayList<>();
+		codes = new BitSet();
 	}
 	
 	/**
@@ -28,6 +38,7 @@ public class StateBuffer {
 	 */
 	public void clear() {
 		buffer.clear();
+		codes.clear();
 	}
 	
 	/**
@@ -36,6 +47,7 @@ public class StateBuffer {
 	 */
 	public void add(State s) {
 		buffer.add(s);
+		codes.set(s.getCode());
 	}
 	
 	/**
@@ -44,20 +56,19 @@ public class StateBuffer {
 	 * @return boolean
 	 */
 	public boolean contains(State s) {
-		return buffer.contains(s);
+		return codes.get(s.getCode());
 	}
 	
 	/**
 	 * Checks if all states from the input are in the buffer or not
-	 * @param s List[Transition[String,State]]
+	 * @param s List[Transition[Integer,State]]
 	 * @return boolean
 	 */
-	public boolean containsAll(List<Transition<String, State>> s) {
-		List<State> l = new ArrayList<>();
+	public boolean containsAll(List<Transition<Integer, State>> s) {
 		for(var t : s) {
-			l.add(t.getValue());
+			if(!contains(t.getValue())) return false;
 		}
-		return containsAllStates(l);
+		return true;
 	}
 	
 	/**
@@ -66,7 +77,10 @@ public class StateBuffer {
 	 * @return boolean
 	 */
 	public boolean containsAllStates(List<State> s) {
-		return buffer.containsAll(s);
+		for(var st : s) {
+			if(!contains(st)) return false;
+		}
+		return true;
 	}
 	
 	/**
@@ -2,13 +2,14 @@ package drawer;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import automaton.Automaton;
 import automaton.State;
-import automaton.Transition;
 import processing.core.PApplet;
 
 /**
@@ -23,6 +24,39 @@ public class Drawer {
 	private static final float OFFSET_CURB = 4;
 	private static final float OFFSET_LINE = 5;
 	private static final float LINE_LENGTH = 70;
+	/**
+	 * Zoom under which the states close to each other are drawn as one, and the transitions as simple lines.
+	 */
+	private static final float DETAIL_ZOOM = 0.5f;
+	/**
+	 * Size on the screen, in pixels, under which a part of the automaton is drawn as one.
+	 */
+	private static final float CLUSTER_SIZE = 40;
+	private static final float MIN_ZOOM = 0.01f;
+	private static final float MAX_ZOOM = 10;
+	/**
+	 * Edges of the last automaton drawn, null if they have to be computed again.
+	 */
+	private List<Edge> edges;
+	/**
+	 * Index of the states and the edges of the last automaton drawn, computed with the edges.
+	 */
+	private QuadTree tree;
+	/**
+	 * The edges going from every state of the last automaton drawn.
+	 */
+	private Map<State,List<Edge>> outgoing;
+	/**
+	 * The automaton and its version the edges have been computed for.
+	 */
+	private Automaton edgesAuto;
+	private int edgesVersion;
+	/**
+	 * The view: the position on the screen of the origin of the automaton, and the zoom.
+	 */
+	private float offsetX;
+	private float offsetY;
+	private float zoom;
 	
 	/**
 	 * Constructor for the Drawer class
@@ -30,6 +64,113 @@ public class Drawer {
 	 */
 	public Drawer(PApplet parent) {
 		this.parent = parent;
+		resetView();
+	}
+	
+	/**
+	 * Moves the view.
+	 * @param dx In pixels.
+	 * @param dy In pixels.
+	 */
+	public void pan(float dx, float dy) {
+		offsetX += dx;
+		offsetY += dy;
+	}
+	
+	/**
+	 * Zooms in or out, the point of the screen at (x, y) staying in place.
+	 * @param factor Greater than 1 to zoom in.
+	 * @param x
+	 * @param y
+	 */
+	public void zoom(float factor, float x, float y) {
+		float z = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+		offsetX = x - (x - offsetX) * z / zoom;
+		offsetY = y - (y - offsetY) * z / zoom;
+		zoom = z;
+	}
+	
+	/**
+	 * Goes back to the view without any zoom nor move.
+	 */
+	public void resetView() {
+		offsetX = 0;
+		offsetY = 0;
+		zoom = 1;
+	}
+	
+	/**
+	 * Draws the automaton through the view: only what is in the window is drawn, and when the view is zoomed out
+	 * the states close to each other are drawn as one circle with their number.
+	 * What doesn't depend on the view is computed once for every version of the automaton.
+	 * @param auto
+	 * @param version Has to change every time the automaton, or the position of its states, changes.
+	 */
+	public void draw(Automaton auto, int version) {
+		parent.textSize(11);
+		getEdges(auto, version);
+		/*
+		 * The part of the automaton in the window, with room for what is drawn around the states.
+		 */
+		float margin = LINE_LENGTH + DIAMETER;
+		float minX = -offsetX / zoom - margin;
+		float minY = -offsetY / zoom - margin;
+		float maxX = (parent.width - offsetX) / zoom + margin;
+		float maxY = (parent.height - offsetY) / zoom + margin;
+		List<State> states = new ArrayList<>();
+		List<QuadTree.Node> clusters = new ArrayList<>();
+		boolean detailed = zoom >= DETAIL_ZOOM;
+		tree.collect(minX, minY, maxX, maxY, detailed ? 0 : CLUSTER_SIZE / zoom, states, clusters);
+		
+		parent.pushMatrix();
+		parent.translate(offsetX, offsetY);
+		parent.scale(zoom);
+		if(detailed) {
+			List<Edge> list = new ArrayList<>();
+			tree.collectEdges(minX, minY, maxX, maxY, list);
+			for(var e : list) {
+				if(e.getFrom().isVisible() && e.getTo().isVisible()) {
+					if(e.getFrom() == e.getTo())
+						drawCurb(e);
+					else
+						drawLine(e);
+				}
+			}
+		}else {
+			/*
+			 * Only the transitions in between two states drawn on their own are drawn, as simple lines.
+			 */
+			Set<State> drawn = new HashSet<>(states);
+			for(var s : states) {
+				if(!s.isVisible()) continue;
+				for(var e : outgoing.get(s)) {
+					if(e.getFrom() != e.getTo() && drawn.contains(e.getTo()) && e.getTo().isVisible())
+						parent.line(e.getFrom().getPosX(), e.getFrom().getPosY(), e.getTo().getPosX(), e.getTo().getPosY());
+				}
+			}
+			for(var c : clusters) {
+				drawCluster(c);
+			}
+		}
+		parent.textSize(11);
+		for(var s : states) {
+			if(s.isVisible()) drawState(s);
+		}
+		parent.popMatrix();
+	}
+	
+	/**
+	 * Draws the states of a node as one circle, with their number. It keeps the same size on the screen whatever the zoom.
+	 * @param c
+	 */
+	private void drawCluster(QuadTree.Node c) {
+		float d = CLUSTER_SIZE * 0.8f / zoom;
+		parent.fill(150);
+		parent.ellipse(c.getCenterX(), c.getCenterY(), d, d);
+		String count = "" + c.getCount();
+		parent.textSize(11 / zoom);
+		parent.fill(0);
+		parent.text(count, c.getCenterX() - parent.textWidth(count)/2, c.getCenterY() + (parent.textAscent() - parent.textDescent())/2);
 	}
 	
 	/**
@@ -41,121 +182,141 @@ public class Drawer {
 		Set<State> states = auto.getStates();
 		//For each state in the automaton, draw it
 		for(var s : states) {
-			if(s.isVisible()) {
-				//If the state is at the start, then draw a line coming to it
-				if(s.isStart()) {
-					parent.fill(0);
-					//Params for the corners of the triangle
-					float p1_x = -DIAMETER/2 + s.getPosX();
-					float p1_y = 0 + s.getPosY();
-					
-					float p2_x = - DIAMETER/2 - TRIANGLE_POS + s.getPosX();
-					float p2_y = TRIANGLE_POS + s.getPosY();
-					
-					float p3_x = - DIAMETER/2 - TRIANGLE_POS + s.getPosX();
-					float p3_y = - TRIANGLE_POS + s.getPosY();
-					//Draw the triangle
-					parent.triangle(p1_x, p1_y, p2_x, p2_y, p3_x, p3_y);
-					parent.fill(255);
-					//Draw the line
-					parent.line(s.getPosX() - LINE_LENGTH, s.getPosY(), s.getPosX() - DIAMETER/2, s.getPosY());
-				}
-				//These are very explicit: if the state is a certain color, then the state will be drawn in that color, else 
-				//the state will be white
-				if(s.isBlue()){
-					parent.fill(0, 0, 255);
-				}else if(s.isRed()){
-					parent.fill(255, 0, 0);
-				}else {
-					parent.fill(255);
-				}
-				
-				
-				//Draw the ellipse of the state
-				parent.ellipse(s.getPosX(), s.getPosY(), DIAMETER, DIAMETER);
-				//If the state is at the end, then we draw a smaller ellipse above it, so that we have the impression of having
-				//a double circle.
-				if(s.isFinish()) 
-					parent.ellipse(s.getPosX(), s.getPosY(), DIAMETER - 5, DIAMETER - 5);
-				//In the next three line, we draw the name of the state onto the circles.
-				String id = s.getId();
-				parent.fill(0);
-				parent.text(id, s.getPosX() - parent.textWidth(id)/2, s.getPosY() + (parent.textAscent() - parent.textDescent())/2);
-			}
+			if(s.isVisible())
+				drawState(s);
+		}
+	}
+	
+	/**
+	 * Draws a state, with its name.
+	 * @param s State
+	 */
+	private void drawState(State s) {
+		//If the state is at the start, then draw a line coming to it
+		if(s.isStart()) {
+			parent.fill(0);
+			//Params for the corners of the triangle
+			float p1_x = -DIAMETER/2 + s.getPosX();
+			float p1_y = 0 + s.getPosY();
+			
+			float p2_x = - DIAMETER/2 - TRIANGLE_POS + s.getPosX();
+			float p2_y = TRIANGLE_POS + s.getPosY();
+			
+			float p3_x = - DIAMETER/2 - TRIANGLE_POS + s.getPosX();
+			float p3_y = - TRIANGLE_POS + s.getPosY();
+			//Draw the triangle
+			parent.triangle(p1_x, p1_y, p2_x, p2_y, p3_x, p3_y);
+			parent.fill(255);
+			//Draw the line
+			parent.line(s.getPosX() - LINE_LENGTH, s.getPosY(), s.getPosX() - DIAMETER/2, s.getPosY());
 		}
+		//These are very explicit: if the state is a certain color, then the state will be drawn in that color, else 
+		//the state will be white
+		if(s.isBlue()){
+			parent.fill(0, 0, 255);
+		}else if(s.isRed()){
+			parent.fill(255, 0, 0);
+		}else {
+			parent.fill(255);
+		}
+		
+		
+		//Draw the ellipse of the state
+		parent.ellipse(s.getPosX(), s.getPosY(), DIAMETER, DIAMETER);
+		//If the state is at the end, then we draw a smaller ellipse above it, so that we have the impression of having
+		//a double circle.
+		if(s.isFinish()) 
+			parent.ellipse(s.getPosX(), s.getPosY(), DIAMETER - 5, DIAMETER - 5);
+		//In the next three line, we draw the name of the state onto the circles.
+		String id = s.getId();
+		parent.fill(0);
+		parent.text(id, s.getPosX() - parent.textWidth(id)/2, s.getPosY() + (parent.textAscent() - parent.textDescent())/2);
 	}
 	
 	/**
-	 * Draws the transitions between states
+	 * Draws the transitions between states, computing their drawing again.
 	 * @param auto Automaton
 	 */
 	public void drawTransitions(Automaton auto) {
 		parent.textSize(11);
-		Set<State> states = auto.getStates();
-		/*
-		 * For all states in the automaton
-		 */
-		for(var s : states) {
-			if(s.isVisible()) {
-				/*
-				 * This part is to search every connection to a state, so that visually the names
-				 * don't overlap.
-				 * Here we generate all names going to a state.
-				 */
-				Map<State,List<String>> m = new HashMap<>();
-				for(var t : auto.getTransitions(s)) {
-					if(!m.containsKey(t.getValue())) {
-						List<String> l = new ArrayList<>();
-						m.put(t.getValue(), l);
-					}
-					m.get(t.getValue()).add(t.getKey());
-				}
-				/*
-				 * And here, we create a new transition with the new id.
-				 */
-				List<Transition<String,State>> list = new ArrayList<>();
-				for(var st : m.keySet()) {
-					String id = "";
-					List<String> lst = m.get(st);
-					id = lst.get(0);
-					for(int i = 1; i < lst.size(); i++) {
-						id += "," + lst.get(i);
-					}
-					list.add(new Transition<String,State>(id,st));
-				}
-				/*
-				 * For all connections in the new list
-				 */
-				for(var t : list) {
-					//Draw the transition between the state s and the target state
-					if(t.getValue().isVisible())
-						drawTransition(s, t.getValue(), auto, t.getKey());
-					
-				}
+		edges = null;
+		drawEdges(getEdges(auto, 0));
+	}
+	
+	/**
+	 * Draws every edge whose states are both visible.
+	 * @param list
+	 */
+	private void drawEdges(List<Edge> list) {
+		for(var e : list) {
+			if(e.getFrom().isVisible() && e.getTo().isVisible()) {
+				if(e.getFrom() == e.getTo())
+					drawCurb(e);
+				else
+					drawLine(e);
 			}
 		}
 	}
 	
 	/**
-	 * This function determines if the connection is between two distinct states or to the same state.
-	 * @param s1 State
-	 * @param s2 State
-	 * @param auto Automaton
-	 * @param name String The name of the transition
+	 * Returns the edges of the version of the automaton, computing them and the index of its states and edges if they haven't been yet.
+	 * The text size has to be the one of the transitions.
+	 * @param auto
+	 * @param version
+	 * @return List[Edge]
 	 */
-	private void drawTransition(State s1, State s2, Automaton auto, String name) {
-		if(s1 == s2)
-			drawCurb(s1, name);
-		else
-			drawLine(s1, s2, auto, name);
+	private List<Edge> getEdges(Automaton auto, int version) {
+		if(edges != null && auto == edgesAuto && version == edgesVersion) return edges;
+		List<Edge> list = new ArrayList<>();
+		Map<State,List<Edge>> out = new HashMap<>();
+		tree = new QuadTree(auto.getStates());
+		List<State> near = new ArrayList<>();
+		for(var s : auto.getStates()) {
+			/*
+			 * This part is to search every connection to a state, so that visually the names
+			 * don't overlap.
+			 * Here we generate all names going to a state.
+			 */
+			Map<State,StringBuilder> m = new LinkedHashMap<>();
+			for(var t : auto.getTransitions(s)) {
+				String symbol = auto.getAlphabet().getSymbol(t.getKey());
+				StringBuilder id = m.get(t.getValue());
+				if(id == null) m.put(t.getValue(), new StringBuilder(symbol));
+				else id.append(',').append(symbol);
+			}
+			List<Edge> from = new ArrayList<>();
+			for(var st : m.keySet()) {
+				/*
+				 * The states that may be on the line, as far from s on both sides as st is.
+				 */
+				near.clear();
+				if(st != s) {
+					tree.collectOnLine(2 * s.getPosX() - st.getPosX(), 2 * s.getPosY() - st.getPosY(),
+							st.getPosX(), st.getPosY(), 1, near);
+				}
+				String name = m.get(st).toString();
+				from.add(new Edge(s, st, name, parent.textWidth(name), near));
+			}
+			list.addAll(from);
+			out.put(s, from);
+		}
+		edges = list;
+		outgoing = out;
+		for(var e : list) {
+			tree.add(e);
+		}
+		edgesAuto = auto;
+		edgesVersion = version;
+		return list;
 	}
 	
 	/**
 	 * Draws a circle to the current state
-	 * @param s State
-	 * @param name String The name of the transition
+	 * @param e Edge from a state to itself.
 	 */
-	private void drawCurb(State s, String name) {
+	private void drawCurb(Edge e) {
+		State s = e.getFrom();
+		String name = e.getName();
 		/**
 		 * Push the matrix to the current state
 		 */
@@ -181,7 +342,7 @@ public class Drawer {
 		/**
 		 * Set the position of the transition's name and display it
 		 */
-		float posx = -DIAMETER/2 - parent.textWidth(name)/2 - OFFSET_CURB;
+		float posx = -DIAMETER/2 - e.getNameWidth()/2 - OFFSET_CURB;
 		float posy = -(DIAMETER/2 - (parent.textAscent() - parent.textDescent())/2 + OFFSET_CURB);
 		parent.text(name, posx, posy);
 		parent.popMatrix();
@@ -190,53 +351,16 @@ public class Drawer {
 	/**
 	 * Draws a line to the next state. If there is a state in between the two states,
 	 * then it will be curvy, so that it avoids "hitting" the next state and thus be clear to the user.
-	 * @param s1
-	 * @param s2
-	 * @param auto
-	 * @param name
+	 * @param e Edge in between two distinct states.
 	 */
-	private void drawLine(State s1, State s2, Automaton auto, String name) {
-		/**
-		 * Putting necessary values into variables
-		 */
-		float s_posX = s1.getPosX();
-		float s_posY = s1.getPosY();
-		float t_posX = s2.getPosX();
-		float t_posY = s2.getPosY();
-		/**
-		 * Calculating all the lengths of the triangle formed by these two points
-		 */
-		float adj = t_posX - s_posX;
-		float op = t_posY - s_posY;
-		float hyp = (float) Math.sqrt(op * op + adj * adj);
-		
+	private void drawLine(Edge e) {
+		float hyp = e.getHyp();
 		/**
-		 * Pushing the matrix to the current state
+		 * Pushing the matrix to the current state, and rotating it by the angle formed between the two points
 		 */
 		parent.pushMatrix();
-		parent.translate(s_posX, s_posY);
-		
-		/**
-		 * Calculating the angle formed between the two points and rotate the matrix by that angle
-		 */
-		double ang = adj < 0 ? Math.PI : 0;
-		parent.rotate((float) (Math.atan(op/adj) + ang));
-		
-		/**
-		 * Calculating if there are states in between the two states
-		 */
-		List<State> ct = auto.getAllDescendants(s1);
-		float len = hyp;
-		for(var state : ct) {
-			float st_posX = state.getPosX();
-			float st_posY = state.getPosY();
-			float adj_tmp = st_posX - s_posX;
-			float op_tmp = st_posY - s_posY;
-			if(Math.abs(adj_tmp * op - adj * op_tmp) < 0.01) {
-				float hyp_tmp = (float) Math.sqrt(op_tmp * op_tmp + adj_tmp * adj_tmp);
-				if(hyp_tmp < len) len = hyp_tmp;
-			}
-		}
+		parent.translate(e.getFrom().getPosX(), e.getFrom().getPosY());
+		parent.rotate(e.getAngle());
 		
 		/**
 		 * Setting values for the triangles on the tip of the line and drawing them
@@ -255,9 +379,9 @@ public class Drawer {
 		parent.triangle(p1_x, p1_y, p2_x, p2_y, p3_x, p3_y);
 		
 		/**
-		 * Calculate the height of the curve and drawing it
+		 * Drawing the curve, its height has been calculated with the edge
 		 */
-		float h = 75 * (hyp/len - 1);
+		float h = e.getHeight();
 		parent.noFill();
 		parent.arc(hyp/2 - 2.5f, -5, hyp - DIAMETER - 5, h, PApplet.PI, 2 * PApplet.PI);
 		
@@ -268,14 +392,14 @@ public class Drawer {
 		parent.translate(hyp/2, 0);
 		float mult = 1;
 		float dy = 0;
-		if(ang > Math.PI/2) {
+		if(e.isFlipped()) {
 			mult = -1;
 			parent.rotate((float) -(Math.PI));
 			dy = OFFSET_LINE;
 		}
-		float posx = -parent.textWidth(name)/2;
+		float posx = -e.getNameWidth()/2;
 		float posy = mult * (- OFFSET_LINE - 3 - h/2) + dy;
-		parent.text(name, posx, posy);
+		parent.text(e.getName(), posx, posy);
 		parent.popMatrix();
 	}
 	
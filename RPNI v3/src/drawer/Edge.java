@@ -0,0 +1,194 @@
+package drawer;
+
+import java.util.List;
+
+import automaton.State;
+
+/**
+ * The drawing of the transitions going from one state to another, computed once for a version of the automaton.
+ * Every transition between the two states is drawn as one edge, its name being all of their symbols.
+ * @author Romain
+ *
+ */
+class Edge {
+	/**
+	 * State the edge starts from.
+	 */
+	private State from;
+	/**
+	 * State the edge goes to.
+	 */
+	private State to;
+	/**
+	 * Name of the edge: the symbols of the transitions, separated by commas.
+	 */
+	private String name;
+	/**
+	 * Width of the name, with the text size of the transitions.
+	 */
+	private float nameWidth;
+	/**
+	 * Distance in between the two states.
+	 */
+	private float hyp;
+	/**
+	 * Angle of the line from the first state to the second.
+	 */
+	private float angle;
+	/**
+	 * Does the line go to the left ? Its name is turned around so that it isn't upside down.
+	 */
+	private boolean flipped;
+	/**
+	 * Height of the curve, 0 if no state is in between the two states.
+	 */
+	private float height;
+	/**
+	 * Rectangle the edge is drawn in: its curve and its name may go a bit beyond its two states.
+	 */
+	private float minX;
+	private float minY;
+	private float maxX;
+	private float maxY;
+
+	/**
+	 * Constructor for the Edge class.
+	 * @param from
+	 * @param to
+	 * @param name
+	 * @param nameWidth
+	 * @param near The states near the line, the ones on it make it curvy. The state from is left aside.
+	 */
+	Edge(State from, State to, String name, float nameWidth, List<State> near) {
+		this.from = from;
+		this.to = to;
+		this.name = name;
+		this.nameWidth = nameWidth;
+		if(from != to) curve(near);
+		float m = Math.abs(height) / 2 + nameWidth;
+		minX = Math.min(from.getPosX(), to.getPosX()) - m;
+		minY = Math.min(from.getPosY(), to.getPosY()) - m;
+		maxX = Math.max(from.getPosX(), to.getPosX()) + m;
+		maxY = Math.max(from.getPosY(), to.getPosY()) + m;
+	}
+
+	/**
+	 * Calculates the line in between two distinct states.
+	 * @param near
+	 */
+	private void curve(List<State> near) {
+		/*
+		 * Calculating all the lengths of the triangle formed by these two points
+		 */
+		float s_posX = from.getPosX();
+		float s_posY = from.getPosY();
+		float adj = to.getPosX() - s_posX;
+		float op = to.getPosY() - s_posY;
+		hyp = (float) Math.sqrt(op * op + adj * adj);
+		double ang = adj < 0 ? Math.PI : 0;
+		angle = (float) (Math.atan(op/adj) + ang);
+		flipped = ang > Math.PI/2;
+		/*
+		 * Calculating if there are states in between the two states, the closest one gives the height of the curve
+		 */
+		float len = hyp;
+		for(var state : near) {
+			if(state == from) continue;
+			float adj_tmp = state.getPosX() - s_posX;
+			float op_tmp = state.getPosY() - s_posY;
+			if(Math.abs(adj_tmp * op - adj * op_tmp) < 0.01) {
+				float hyp_tmp = (float) Math.sqrt(op_tmp * op_tmp + adj_tmp * adj_tmp);
+				if(hyp_tmp < len) len = hyp_tmp;
+			}
+		}
+		height = 75 * (hyp/len - 1);
+	}
+
+	/**
+	 * A simple getter for the state the edge starts from.
+	 * @return State
+	 */
+	State getFrom() {
+		return from;
+	}
+
+	/**
+	 * A simple getter for the state the edge goes to.
+	 * @return State
+	 */
+	State getTo() {
+		return to;
+	}
+
+	/**
+	 * A simple getter for the name.
+	 * @return String
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * A simple getter for the width of the name.
+	 * @return float
+	 */
+	float getNameWidth() {
+		return nameWidth;
+	}
+
+	/**
+	 * A simple getter for the distance in between the two states.
+	 * @return float
+	 */
+	float getHyp() {
+		return hyp;
+	}
+
+	/**
+	 * A simple getter for the angle.
+	 * @return float
+	 */
+	float getAngle() {
+		return angle;
+	}
+
+	/**
+	 * A simple getter for flipped.
+	 * @return boolean
+	 */
+	boolean isFlipped() {
+		return flipped;
+	}
+
+	/**
+	 * A simple getter for the height of the curve.
+	 * @return float
+	 */
+	float getHeight() {
+		return height;
+	}
+
+	/**
+	 * Can the edge be in the rectangle ?
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @return boolean
+	 */
+	boolean intersects(float minX, float minY, float maxX, float maxY) {
+		return this.minX <= maxX && this.maxX >= minX && this.minY <= maxY && this.maxY >= minY;
+	}
+
+	/**
+	 * Is the edge drawn inside the rectangle ?
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @return boolean
+	 */
+	boolean isInside(float minX, float minY, float maxX, float maxY) {
+		return this.minX >= minX && this.maxX <= maxX && this.minY >= minY && this.maxY <= maxY;
+	}
+}
@@ -0,0 +1,307 @@
+package drawer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import automaton.State;
+
+/**
+ * Spatial index of the states over their positions, to find the ones in a part of the window without browsing them all.
+ * Every node keeps how many states it holds and their center, so that far away states can be drawn as one.
+ * The edges are indexed too, once the states are: an edge is kept by the smallest node its rectangle is inside of,
+ * so only the nodes in a part of the window have to be looked at to find the edges that may be drawn there.
+ * The positions of the states must not change while the tree is used, it is built again for every version of the automaton.
+ * @author Romain
+ *
+ */
+class QuadTree {
+	/**
+	 * Number of states a leaf holds before being split.
+	 */
+	private static final int CAPACITY = 8;
+	/**
+	 * Depth at which the leaves aren't split anymore, for the states at the same position.
+	 */
+	private static final int MAX_DEPTH = 16;
+	/**
+	 * The root of the tree, null if there is no state.
+	 */
+	private Node root;
+
+	/**
+	 * Constructor for the QuadTree class.
+	 * @param states
+	 */
+	QuadTree(Collection<State> states) {
+		if(states.isEmpty()) return;
+		float minX = Float.MAX_VALUE;
+		float minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE;
+		float maxY = -Float.MAX_VALUE;
+		for(var s : states) {
+			minX = Math.min(minX, s.getPosX());
+			minY = Math.min(minY, s.getPosY());
+			maxX = Math.max(maxX, s.getPosX());
+			maxY = Math.max(maxY, s.getPosY());
+		}
+		root = new Node(minX, minY, Math.max(1, Math.max(maxX - minX, maxY - minY)), 0);
+		for(var s : states) {
+			root.add(s);
+		}
+	}
+
+	/**
+	 * Adds the edge to the index. The states have to be in the tree already, the tree isn't split anymore.
+	 * @param e
+	 */
+	void add(Edge e) {
+		if(root == null) return;
+		Node n = root;
+		while(n.children != null) {
+			Node c = n.quarter(e);
+			if(c == null) break;
+			n = c;
+		}
+		n.edges.add(e);
+	}
+
+	/**
+	 * Lists the edges that may be drawn in the rectangle.
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @param edges Receives the edges.
+	 */
+	void collectEdges(float minX, float minY, float maxX, float maxY, List<Edge> edges) {
+		if(root == null) return;
+		/*
+		 * The rectangles of the edges kept by the root may go beyond it, the other nodes are inside of their node.
+		 */
+		for(var e : root.edges) {
+			if(e.intersects(minX, minY, maxX, maxY)) edges.add(e);
+		}
+		if(root.children != null) {
+			for(var c : root.children) {
+				c.collectEdges(minX, minY, maxX, maxY, edges);
+			}
+		}
+	}
+
+	/**
+	 * Lists the states that may be on the segment from (x1, y1) to (x2, y2): the states at most margin away from the line,
+	 * in the rectangle of the segment. Only the nodes the line goes through are looked at.
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
+	 * @param margin
+	 * @param states Receives the states.
+	 */
+	void collectOnLine(float x1, float y1, float x2, float y2, float margin, List<State> states) {
+		if(root != null) root.collectOnLine(x1, y1, x2, y2, margin, states);
+	}
+
+	/**
+	 * Lists the states and the clusters in the rectangle.
+	 * A node smaller than minSize that holds more than one state is a cluster, its states aren't listed.
+	 * The clusters are given as their node, they may go beyond the rectangle.
+	 * @param minX
+	 * @param minY
+	 * @param maxX
+	 * @param maxY
+	 * @param minSize 0 so that there is no cluster.
+	 * @param states Receives the states.
+	 * @param clusters Receives the clusters.
+	 */
+	void collect(float minX, float minY, float maxX, float maxY, float minSize, List<State> states, List<Node> clusters) {
+		if(root != null) root.collect(minX, minY, maxX, maxY, minSize, states, clusters);
+	}
+
+	/**
+	 * A square part of the plane, with the states in it.
+	 * @author Romain
+	 *
+	 */
+	static class Node {
+		/**
+		 * Left side, top side and size of the square.
+		 */
+		private float x;
+		private float y;
+		private float size;
+		/**
+		 * Depth of the node, 0 for the root.
+		 */
+		private int depth;
+		/**
+		 * Number of states in the node, and the sum of their positions.
+		 */
+		private int count;
+		private float sumX;
+		private float sumY;
+		/**
+		 * The four quarters of the node, null while it is a leaf.
+		 */
+		private Node[] children;
+		/**
+		 * The states of a leaf.
+		 */
+		private List<State> states;
+		/**
+		 * The edges inside of the node but of none of its quarters.
+		 */
+		private List<Edge> edges;
+
+		/**
+		 * Constructor for the Node class.
+		 * @param x Left side.
+		 * @param y Top side.
+		 * @param size
+		 * @param depth
+		 */
+		private Node(float x, float y, float size, int depth) {
+			this.x = x;
+			this.y = y;
+			this.size = size;
+			this.depth = depth;
+			this.states = new ArrayList<>();
+			this.edges = new ArrayList<>();
+		}
+
+		/**
+		 * Adds the state to the node, splitting it if it is full.
+		 * @param s
+		 */
+		private void add(State s) {
+			count++;
+			sumX += s.getPosX();
+			sumY += s.getPosY();
+			if(children != null) {
+				child(s).add(s);
+				return;
+			}
+			states.add(s);
+			if(states.size() > CAPACITY && depth < MAX_DEPTH) {
+				float half = size / 2;
+				children = new Node[] {new Node(x, y, half, depth + 1), new Node(x + half, y, half, depth + 1),
+						new Node(x, y + half, half, depth + 1), new Node(x + half, y + half, half, depth + 1)};
+				for(var st : states) {
+					child(st).add(st);
+				}
+				states = null;
+			}
+		}
+
+		/**
+		 * Returns the quarter the state is in.
+		 * @param s
+		 * @return Node
+		 */
+		private Node child(State s) {
+			int i = s.getPosX() < x + size / 2 ? 0 : 1;
+			if(s.getPosY() >= y + size / 2) i += 2;
+			return children[i];
+		}
+
+		/**
+		 * Returns the quarter the edge is inside of.
+		 * @param e
+		 * @return Node or null if the edge isn't inside of one of them.
+		 */
+		private Node quarter(Edge e) {
+			for(var c : children) {
+				if(e.isInside(c.x, c.y, c.x + c.size, c.y + c.size)) return c;
+			}
+			return null;
+		}
+
+		/**
+		 * Core of QuadTree.collectEdges, for a node that isn't the root.
+		 */
+		private void collectEdges(float minX, float minY, float maxX, float maxY, List<Edge> out) {
+			if(x > maxX || y > maxY || x + size < minX || y + size < minY) return;
+			for(var e : edges) {
+				if(e.intersects(minX, minY, maxX, maxY)) out.add(e);
+			}
+			if(children != null) {
+				for(var c : children) {
+					c.collectEdges(minX, minY, maxX, maxY, out);
+				}
+			}
+		}
+
+		/**
+		 * Core of QuadTree.collectOnLine.
+		 */
+		private void collectOnLine(float x1, float y1, float x2, float y2, float margin, List<State> out) {
+			if(x > Math.max(x1, x2) + margin || y > Math.max(y1, y2) + margin
+					|| x + size < Math.min(x1, x2) - margin || y + size < Math.min(y1, y2) - margin) return;
+			/*
+			 * The line has to go through the circle around the square.
+			 */
+			float dx = x2 - x1;
+			float dy = y2 - y1;
+			float len = (float) Math.sqrt(dx * dx + dy * dy);
+			float cx = x + size / 2 - x1;
+			float cy = y + size / 2 - y1;
+			if(len > 0 && Math.abs(cx * dy - cy * dx) > (size * 0.71f + margin) * len) return;
+			if(children == null) {
+				for(var s : states) {
+					float sx = s.getPosX() - x1;
+					float sy = s.getPosY() - y1;
+					if(s.getPosX() >= Math.min(x1, x2) - margin && s.getPosX() <= Math.max(x1, x2) + margin
+							&& s.getPosY() >= Math.min(y1, y2) - margin && s.getPosY() <= Math.max(y1, y2) + margin
+							&& (len == 0 || Math.abs(sx * dy - sy * dx) <= margin * len)) out.add(s);
+				}
+			}else {
+				for(var c : children) {
+					c.collectOnLine(x1, y1, x2, y2, margin, out);
+				}
+			}
+		}
+
+		/**
+		 * Core of QuadTree.collect.
+		 */
+		private void collect(float minX, float minY, float maxX, float maxY, float minSize, List<State> out, List<Node> clusters) {
+			if(x > maxX || y > maxY || x + size < minX || y + size < minY) return;
+			if(count > 1 && size < minSize) {
+				clusters.add(this);
+			}else if(children == null) {
+				for(var s : states) {
+					if(s.getPosX() >= minX && s.getPosX() <= maxX && s.getPosY() >= minY && s.getPosY() <= maxY) out.add(s);
+				}
+			}else {
+				for(var c : children) {
+					c.collect(minX, minY, maxX, maxY, minSize, out, clusters);
+				}
+			}
+		}
+
+		/**
+		 * A simple getter for the number of states in the node.
+		 * @return int
+		 */
+		int getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the center of the states in the node, on the x axis.
+		 * @return float
+		 */
+		float getCenterX() {
+			return sumX / count;
+		}
+
+		/**
+		 * Returns the center of the states in the node, on the y axis.
+		 * @return float
+		 */
+		float getCenterY() {
+			return sumY / count;
+		}
+	}
+}
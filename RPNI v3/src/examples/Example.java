@@ -2,35 +2,36 @@ package examples;
 
 /**
  * A class that stores an example like: {a,a,b,a}
+ * The transitions are stored with their index in the alphabet, like: {0,0,1,0}
  * @author Romain
  *
  */
 public class Example {
-	private String[] strs;
+	private int[] symbols;
 
 	/**
 	 * Constructor for the Example class.
-	 * @param strs String The array of the example.
+	 * @param symbols int The array of the example.
 	 */
-	public Example(String[] strs) {
+	public Example(int[] symbols) {
 		super();
-		this.strs = strs;
+		this.symbols = symbols;
 	}
 	
 	/**
 	 * Getter for the array of examples.
-	 * @return
+	 * @return int[]
 	 */
-	public String[] getStrs() {
-		return strs;
+	public int[] getSymbols() {
+		return symbols;
 	}
 	
 	/**
 	 * Setter for the array of examples.
-	 * @param strs
+	 * @param symbols
 	 */
-	public void setStrs(String[] strs) {
-		this.strs = strs;
+	public void setSymbols(int[] symbols) {
+		this.symbols = symbols;
 	}
 	
 }
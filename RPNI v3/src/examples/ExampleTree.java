@@ -0,0 +1,187 @@
+package examples;
+
+import java.util.Arrays;
+
+import automaton.Alphabet;
+
+/**
+ * This class stores examples in a prefix tree, so that the examples sharing a prefix share the same nodes.
+ * Nodes are ints, the root (null example) is 0 and every node comes after its parent.
+ * The children are stored in a single int table: the child of the node n with the symbol a is at n * width + a.
+ * @author Romain
+ *
+ */
+public class ExampleTree {
+
+	/**
+	 * The root of the tree, reached by the null example.
+	 */
+	public static final int ROOT = 0;
+	/**
+	 * Value of a missing child.
+	 */
+	public static final int NONE = -1;
+	/**
+	 * Number of columns of the table, at least the number of symbols.
+	 */
+	private int width;
+	/**
+	 * Children of every node, NONE when there is no child.
+	 */
+	private int[] children;
+	/**
+	 * Parent of every node, NONE for the root.
+	 */
+	private int[] parents;
+	/**
+	 * Symbol that leads from the parent to the node, for every node.
+	 */
+	private int[] symbols;
+	/**
+	 * Is the node the end of an example, for every node.
+	 */
+	private boolean[] ends;
+	/**
+	 * Number of nodes.
+	 */
+	private int size;
+
+	/**
+	 * Constructor for the ExampleTree class. Builds the tree of all the examples.
+	 * @param exs
+	 * @param alphabet The alphabet the examples have been interned in.
+	 */
+	public ExampleTree(Examples exs, Alphabet alphabet) {
+		width = Math.max(1, alphabet.size());
+		children = new int[0];
+		parents = new int[0];
+		symbols = new int[0];
+		ends = new boolean[0];
+		size = 0;
+		addNode(NONE, NONE);
+		for(var ex : exs.getExs()) {
+			addExample(ex.getSymbols());
+		}
+	}
+
+	/**
+	 * Adds an example to the tree.
+	 * @param example
+	 */
+	public void addExample(int[] example) {
+		int n = ROOT;
+		for(int a : example) {
+			int child = getChild(n, a);
+			if(child == NONE) {
+				child = addNode(n, a);
+				children[n * width + a] = child;
+			}
+			n = child;
+		}
+		ends[n] = true;
+	}
+
+	/**
+	 * Adds a node without any child.
+	 * @param parent
+	 * @param a
+	 * @return int The new node.
+	 */
+	private int addNode(int parent, int a) {
+		if(a >= width) {
+			/*
+			 * The symbol is new, the table needs to be wider.
+			 */
+			int w = a + 1;
+			int[] c = new int[parents.length * w];
+			Arrays.fill(c, NONE);
+			for(int n = 0; n < size; n++) {
+				System.arraycopy(children, n * width, c, n * w, width);
+			}
+			children = c;
+			width = w;
+		}
+		if(size == parents.length) {
+			int capacity = Math.max(16, 2 * size);
+			parents = Arrays.copyOf(parents, capacity);
+			symbols = Arrays.copyOf(symbols, capacity);
+			ends = Arrays.copyOf(ends, capacity);
+			children = Arrays.copyOf(children, capacity * width);
+			Arrays.fill(children, size * width, children.length, NONE);
+		}
+		parents[size] = parent;
+		symbols[size] = a;
+		return size++;
+	}
+
+	/**
+	 * Returns the child of the node n with the symbol a.
+	 * @param n
+	 * @param a
+	 * @return int or NONE if there is no such child.
+	 */
+	public int getChild(int n, int a) {
+		if(a < 0 || a >= width) return NONE;
+		return children[n * width + a];
+	}
+
+	/**
+	 * Returns the parent of the node n.
+	 * @param n
+	 * @return int or NONE for the root.
+	 */
+	public int getParent(int n) {
+		return parents[n];
+	}
+
+	/**
+	 * Returns the symbol that leads from the parent to the node n.
+	 * @param n
+	 * @return int or NONE for the root.
+	 */
+	public int getSymbol(int n) {
+		return symbols[n];
+	}
+
+	/**
+	 * Is the node n the end of an example ?
+	 * @param n
+	 * @return boolean
+	 */
+	public boolean isEnd(int n) {
+		return ends[n];
+	}
+
+	/**
+	 * Returns the example that leads from the root to the node n.
+	 * @param n
+	 * @return int[]
+	 */
+	public int[] getExample(int n) {
+		int length = 0;
+		for(int m = n; m != ROOT; m = parents[m]) {
+			length++;
+		}
+		int[] example = new int[length];
+		for(int m = n; m != ROOT; m = parents[m]) {
+			example[--length] = symbols[m];
+		}
+		return example;
+	}
+
+	/**
+	 * Returns the number of symbols the table has room for.
+	 * @return int
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+}
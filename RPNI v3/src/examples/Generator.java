@@ -0,0 +1,249 @@
+package examples;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import automaton.Alphabet;
+import automaton.Automaton;
+import automaton.State;
+import exceptions.UnknownStateException;
+
+/**
+ * Generates examples for the learning: a random target automaton is built from a seed, then words are drawn at random
+ * and labelled by the target. Everything only depends on the seed and the parameters.
+ * The symbols are a, b, c... then s26, s27... past the 26th.
+ * @author Romain
+ *
+ */
+public class Generator {
+	/**
+	 * Draws the examples.
+	 */
+	private Random random;
+	/**
+	 * Transitions of the target, next[s][a] is the state reached from s with a. The target is complete.
+	 */
+	private int[][] next;
+	/**
+	 * Accepting states of the target.
+	 */
+	private boolean[] finish;
+	/**
+	 * Number of positive and negative examples written by the last generate.
+	 */
+	private int positives;
+	private int negatives;
+
+	/**
+	 * Constructor for the Generator class. Builds the target automaton, state 0 is the first state.
+	 * Every state can be reached from the first state. When there are at least two states, there is always one
+	 * accepting state and one that isn't.
+	 * @param seed
+	 * @param states Number of states of the target.
+	 * @param symbols Size of the alphabet.
+	 * @param accepting Probability for a state to be accepting.
+	 */
+	public Generator(long seed, int states, int symbols, double accepting) {
+		if(states < 1 || symbols < 1) throw new IllegalArgumentException("The target needs a state and a symbol.");
+		random = new Random(seed);
+		next = new int[states][symbols];
+		finish = new boolean[states];
+
+		/*
+		 * Every state but the first gets a transition from a state before it, on a free symbol, so that they can all be reached.
+		 * There is always a free transition: the i first states have i * symbols of them and only i - 1 are used.
+		 */
+		for(int s = 0; s < states; s++) {
+			Arrays.fill(next[s], -1);
+		}
+		for(int s = 1; s < states; s++) {
+			int from;
+			int a;
+			do {
+				from = random.nextInt(s);
+				a = random.nextInt(symbols);
+			}while(next[from][a] != -1);
+			next[from][a] = s;
+		}
+		for(int s = 0; s < states; s++) {
+			for(int a = 0; a < symbols; a++) {
+				if(next[s][a] == -1) next[s][a] = random.nextInt(states);
+			}
+			finish[s] = random.nextDouble() < accepting;
+		}
+		if(states > 1) {
+			int s = random.nextInt(states);
+			boolean all = true;
+			boolean none = true;
+			for(boolean f : finish) {
+				all &= f;
+				none &= !f;
+			}
+			if(all) finish[s] = false;
+			if(none) finish[s] = true;
+		}
+	}
+
+	/**
+	 * Name of a symbol.
+	 * @param a
+	 * @return String
+	 */
+	public static String symbol(int a) {
+		return a < 26 ? String.valueOf((char) ('a' + a)) : "s" + a;
+	}
+
+	/**
+	 * Is the word accepted by the target ?
+	 * @param word The symbols, in between 0 and the size of the alphabet.
+	 * @return boolean
+	 */
+	public boolean accepts(int[] word) {
+		int s = 0;
+		for(int a : word) {
+			s = next[s][a];
+		}
+		return finish[s];
+	}
+
+	/**
+	 * Builds the target as an automaton, to be written with the AutomatonWriter.
+	 * @return Automaton
+	 */
+	public Automaton getTarget() {
+		Alphabet alphabet = new Alphabet();
+		for(int a = 0; a < next[0].length; a++) {
+			alphabet.intern(symbol(a));
+		}
+		Automaton auto = new Automaton(alphabet);
+		State[] states = new State[next.length];
+		for(int s = 0; s < states.length; s++) {
+			states[s] = new State();
+			states[s].setFinish(finish[s]);
+			auto.addState(states[s]);
+		}
+		states[0].setStart(true);
+		auto.setFirst(states[0]);
+		try {
+			for(int s = 0; s < states.length; s++) {
+				for(int a = 0; a < next[s].length; a++) {
+					auto.connect(states[s], states[next[s][a]], a);
+				}
+			}
+		} catch (UnknownStateException e) {
+			e.printStackTrace();
+		}
+		return auto;
+	}
+
+	/**
+	 * Draws distinct words until there are enough positive and negative examples, and writes them in the given files,
+	 * one example per line as in the + and - files.
+	 * The number of draws is bounded, fewer examples are written when the target or the lengths don't give enough
+	 * distinct words: see getPositives and getNegatives.
+	 * @param positives Number of positive examples.
+	 * @param negatives Number of negative examples.
+	 * @param lengths Distribution of the lengths of the words.
+	 * @param positive
+	 * @param negative
+	 * @throws IOException
+	 */
+	public void generate(int positives, int negatives, Lengths lengths, File positive, File negative) throws IOException {
+		PrintWriter pos = new PrintWriter(positive);
+		PrintWriter neg = new PrintWriter(negative);
+		Set<String> seen = new HashSet<>();
+		int p = 0;
+		int n = 0;
+		long tries = 100L * (positives + negatives + 1);
+		for(long t = 0; (p < positives || n < negatives) && t < tries; t++) {
+			int[] word = new int[lengths.next(random)];
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i < word.length; i++) {
+				word[i] = random.nextInt(next[0].length);
+				if(i > 0) sb.append(';');
+				sb.append(symbol(word[i]));
+			}
+			String str = sb.toString();
+			if(!seen.add(str)) continue;
+			if(accepts(word)) {
+				if(p < positives) {
+					pos.println(str);
+					p++;
+				}
+			}else if(n < negatives) {
+				neg.println(str);
+				n++;
+			}
+		}
+		pos.close();
+		neg.close();
+		this.positives = p;
+		this.negatives = n;
+	}
+
+	/**
+	 * Getter for the number of positive examples written by the last generate.
+	 * @return int
+	 */
+	public int getPositives() {
+		return positives;
+	}
+
+	/**
+	 * Getter for the number of negative examples written by the last generate.
+	 * @return int
+	 */
+	public int getNegatives() {
+		return negatives;
+	}
+
+	/**
+	 * Distribution of the lengths of the words.
+	 * @author Romain
+	 *
+	 */
+	public interface Lengths {
+
+		/**
+		 * Draws a length.
+		 * @param random
+		 * @return int
+		 */
+		int next(Random random);
+
+		/**
+		 * Every length in between min and max, both included, is as likely.
+		 * @param min
+		 * @param max
+		 * @return Lengths
+		 */
+		static Lengths uniform(int min, int max) {
+			if(min < 0 || max < min) throw new IllegalArgumentException("Bad lengths: " + min + " to " + max);
+			return r -> min + r.nextInt(max - min + 1);
+		}
+
+		/**
+		 * Short words are more likely: the length is min plus a geometric variable, cut at max.
+		 * @param min
+		 * @param mean Mean length, before the cut.
+		 * @param max
+		 * @return Lengths
+		 */
+		static Lengths geometric(int min, double mean, int max) {
+			if(min < 0 || max < min || mean < min) throw new IllegalArgumentException("Bad lengths: " + min + " to " + max + ", mean " + mean);
+			double stop = 1 / (mean - min + 1);
+			return r -> {
+				int length = min;
+				while(length < max && r.nextDouble() >= stop) {
+					length++;
+				}
+				return length;
+			};
+		}
+	}
+}
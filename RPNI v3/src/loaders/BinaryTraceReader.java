@@ -0,0 +1,127 @@
+package loaders;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import sequence.Move;
+import writers.BinaryTraceWriter;
+
+/**
+ * Reads a trace written by the BinaryTraceWriter, one move at a time.
+ * @author Romain
+ *
+ */
+public class BinaryTraceReader {
+	/**
+	 * The file.
+	 */
+	private InputStream in;
+	/**
+	 * Every string interned, at its number.
+	 */
+	private List<String> strings;
+
+	/**
+	 * Constructor for the BinaryTraceReader class. Reads the header.
+	 * @param in Should be buffered.
+	 * @throws IOException When the stream isn't a binary trace.
+	 */
+	public BinaryTraceReader(InputStream in) throws IOException {
+		this.in = in;
+		this.strings = new ArrayList<>();
+		for(byte b : BinaryTraceWriter.MAGIC) {
+			if(in.read() != b) throw new IOException("Not a binary trace.");
+		}
+		int version = in.read();
+		if(version != BinaryTraceWriter.VERSION) throw new IOException("Unknown binary trace version: " + version);
+	}
+
+	/**
+	 * Does the stream start with a binary trace ? The stream is left where it was.
+	 * @param in Has to support mark.
+	 * @return boolean
+	 * @throws IOException
+	 */
+	public static boolean isBinary(InputStream in) throws IOException {
+		in.mark(BinaryTraceWriter.MAGIC.length);
+		boolean binary = true;
+		for(byte b : BinaryTraceWriter.MAGIC) {
+			if(in.read() != b) {
+				binary = false;
+				break;
+			}
+		}
+		in.reset();
+		return binary;
+	}
+
+	/**
+	 * Reads the next move. When the messages haven't been written, the type is the commentary.
+	 * @return Move or null at the end of the trace.
+	 * @throws IOException
+	 */
+	public Move next() throws IOException {
+		int op = in.read();
+		if(op < 0) return null;
+		int t = op & ~(BinaryTraceWriter.CODES | BinaryTraceWriter.MESSAGE);
+		String type = t == 0 ? readString() : BinaryTraceWriter.TYPES[t - 1];
+		int code1 = -1;
+		int code2 = -1;
+		if((op & BinaryTraceWriter.CODES) != 0) {
+			int v = readVarint();
+			code1 = (v >>> 1) ^ -(v & 1);
+			v = readVarint();
+			code2 = (v >>> 1) ^ -(v & 1);
+		}
+		String message = (op & BinaryTraceWriter.MESSAGE) != 0 ? readString() : type;
+		return new Move(type, message, code1, code2);
+	}
+
+	/**
+	 * Reads a string, or the number of a string already read.
+	 * @return String
+	 * @throws IOException
+	 */
+	private String readString() throws IOException {
+		int i = readVarint();
+		if(i > 0) return strings.get(i - 1);
+		byte[] bytes = new byte[readVarint()];
+		int n = 0;
+		while(n < bytes.length) {
+			int r = in.read(bytes, n, bytes.length - n);
+			if(r < 0) throw new EOFException();
+			n += r;
+		}
+		String str = new String(bytes, StandardCharsets.UTF_8);
+		if(strings.size() < BinaryTraceWriter.MAX_STRINGS) strings.add(str);
+		return str;
+	}
+
+	/**
+	 * Reads a positive int, 7 bits per byte.
+	 * @return int
+	 * @throws IOException
+	 */
+	private int readVarint() throws IOException {
+		int v = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			int b = in.read();
+			if(b < 0) throw new EOFException();
+			v |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return v;
+		}
+		throw new IOException("Malformed varint.");
+	}
+
+	/**
+	 * Closes the file.
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -1,9 +1,17 @@
 package loaders;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.HashMap;
+import java.util.Map;
 
+import algorithms.PTABuilder;
+import automaton.Alphabet;
 import automaton.Automaton;
 import automaton.MCAAutomaton;
 import automaton.State;
@@ -23,16 +31,28 @@ public class Loader {
 	
 	/**
 	 * Loads the MCA automaton based on what we put in the + file.
+	 * The transitions are interned in a new alphabet, shared by every automaton of the MCA.
 	 * @return MCAAutomaton
 	 * @throws UnknownStateException When a state has not been defined.
 	 */
 	public static MCAAutomaton loadMCA() throws UnknownStateException {
-		MCAAutomaton auto = new MCAAutomaton();
+		return loadMCA(new File("res/+"));
+	}
+	
+	/**
+	 * Loads the MCA automaton from the positive examples in the given file.
+	 * @param file
+	 * @return MCAAutomaton
+	 * @throws UnknownStateException When a state has not been defined.
+	 */
+	public static MCAAutomaton loadMCA(File file) throws UnknownStateException {
+		Alphabet alphabet = new Alphabet();
+		MCAAutomaton auto = new MCAAutomaton(alphabet);
 		try {
-			BufferedReader br = new BufferedReader(new FileReader("res/+"));
+			BufferedReader br = new BufferedReader(new FileReader(file));
 			String str;
 			while((str = br.readLine()) != null) {
-				Automaton a = new Automaton();
+				Automaton a = new Automaton(alphabet);
 				String[] strs = str.split(";");
 				State prev = new State();
 				
@@ -47,7 +67,7 @@ public class Loader {
 					for(int i = 0; i < strs.length; i++) {
 						State temp = new State();
 						a.addState(temp);
-						a.connect(prev, temp, strs[i]);
+						a.connect(prev, temp, alphabet.intern(strs[i]));
 						prev = temp;
 					}
 				}
@@ -63,19 +83,65 @@ public class Loader {
 		return auto;
 	}
 	
+	/**
+	 * Loads the PTA directly from what we put in the + file, one line at a time.
+	 * This gives the same automaton as the PTA algorithm on the MCA automaton, without the sequence.
+	 * @return Automaton
+	 */
+	public static Automaton loadPTA() {
+		return loadPTA(new File("res/+"));
+	}
+	
+	/**
+	 * Loads the PTA directly from the positive examples in the given file.
+	 * @param file
+	 * @return Automaton
+	 */
+	public static Automaton loadPTA(File file) {
+		PTABuilder builder = new PTABuilder(new Alphabet());
+		try {
+			BufferedReader br = new BufferedReader(new FileReader(file));
+			String str;
+			while((str = br.readLine()) != null) {
+				builder.addLine(str);
+			}
+			br.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return builder.getAutomaton();
+	}
+	
 	/**
 	 * Loads the examples from a given filename.
+	 * The transitions are interned in the given alphabet, it should be the alphabet of the automaton they are tested on.
 	 * @param filename String the filename of the example.
+	 * @param alphabet Alphabet
 	 * @return Examples The list of examples in the file.
 	 */
-	public static Examples loadExamples(String filename) {
+	public static Examples loadExamples(String filename, Alphabet alphabet) {
+		return loadExamples(new File("res/" + filename), alphabet);
+	}
+	
+	/**
+	 * Loads the examples from the given file, anywhere.
+	 * @param file
+	 * @param alphabet
+	 * @return Examples The list of examples in the file.
+	 */
+	public static Examples loadExamples(File file, Alphabet alphabet) {
 		Examples exs = new Examples();
 		try {
-			BufferedReader br = new BufferedReader(new FileReader("res/" + filename));
+			BufferedReader br = new BufferedReader(new FileReader(file));
 			String str;
 			while((str = br.readLine()) != null) {
 				String[] strs = str.split(";");
-				exs.addExample(new Example(strs));
+				//If the line is empty, then it is the null example
+				int[] symbols = new int[str.isEmpty() ? 0 : strs.length];
+				for(int i = 0; i < symbols.length; i++) {
+					symbols[i] = alphabet.intern(strs[i]);
+				}
+				exs.addExample(new Example(symbols));
 			}
 			br.close();
 		} catch (IOException e) {
@@ -85,27 +151,74 @@ public class Loader {
 	}
 	
 	/**
-	 * Loads the sequence produced by the different algorithms.
-	 * @return Sequence
+	 * Loads an automaton written by the AutomatonWriter.
+	 * @param file
+	 * @return Automaton
+	 * @throws UnknownStateException When a transition uses a state that has not been defined.
 	 */
-	public static Sequence loadSequence() {
-		Sequence sq = new Sequence();
+	public static Automaton loadAutomaton(File file) throws UnknownStateException {
+		Automaton auto = new Automaton(new Alphabet());
+		Map<String, State> states = new HashMap<>();
 		try {
-			BufferedReader br = new BufferedReader(new FileReader("data/dat"));
+			BufferedReader br = new BufferedReader(new FileReader(file));
 			String str;
 			while((str = br.readLine()) != null) {
 				String[] strs = str.split(";");
-				//If the length is 2 then that means that the move was only informative, there wasn't really a move per say
-				if(strs.length == 2) {
-					sq.addMove(new Move(strs[0],strs[1]));
-				}else if(!strs[0].equals("")) {
-					sq.addMove(new Move(strs[0], strs[1], Integer.parseInt(strs[2]), Integer.parseInt(strs[3])));
+				if(strs[0].equals("S")) {
+					State s = new State();
+					s.setStart(strs[2].equals("1"));
+					s.setFinish(strs[3].equals("1"));
+					auto.addState(s);
+					if(s.isStart()) auto.setFirst(s);
+					states.put(strs[1], s);
+				}else if(strs[0].equals("T")) {
+					State from = states.get(strs[1]);
+					State to = states.get(strs[3]);
+					if(from == null) throw new UnknownStateException(strs[1]);
+					if(to == null) throw new UnknownStateException(strs[3]);
+					auto.connect(from, to, strs[2]);
 				}
 			}
 			br.close();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		return auto;
+	}
+	
+	/**
+	 * Loads the sequence produced by the different algorithms.
+	 * The trace may be in text or in binary form, the binary form starts with BinaryTraceWriter.MAGIC.
+	 * @return Sequence
+	 */
+	public static Sequence loadSequence() {
+		Sequence sq = new Sequence();
+		try {
+			BufferedInputStream in = new BufferedInputStream(new FileInputStream("data/dat"));
+			if(BinaryTraceReader.isBinary(in)) {
+				BinaryTraceReader br = new BinaryTraceReader(in);
+				Move m;
+				while((m = br.next()) != null) {
+					sq.addMove(m);
+				}
+				br.close();
+			}else {
+				BufferedReader br = new BufferedReader(new InputStreamReader(in));
+				String str;
+				while((str = br.readLine()) != null) {
+					String[] strs = str.split(";");
+					//If the length is 2 then that means that the move was only informative, there wasn't really a move per say
+					if(strs.length == 2) {
+						sq.addMove(new Move(strs[0],strs[1]));
+					}else if(!strs[0].equals("")) {
+						sq.addMove(new Move(strs[0], strs[1], Integer.parseInt(strs[2]), Integer.parseInt(strs[3])));
+					}
+				}
+				br.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 		return sq;
 	}
 }
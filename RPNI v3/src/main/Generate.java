@@ -0,0 +1,90 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+
+import examples.Generator;
+import examples.Generator.Lengths;
+import exceptions.UndefinedFirstStateException;
+import writers.AutomatonWriter;
+
+/**
+ * Generates examples from a random target automaton, from the command line.
+ * Usage: Generate [options] positives negatives positive-file negative-file target-file
+ * The examples are written in the same form as the + and - files, the target with the AutomatonWriter.
+ * @author Romain
+ *
+ */
+public class Generate {
+
+	/**
+	 * Usage of the command line.
+	 */
+	private static final String USAGE = "Usage: Generate [options] positives negatives positive-file negative-file target-file\n"
+			+ "  --seed n             seed of the target and of the examples (1)\n"
+			+ "  --states n           number of states of the target (10)\n"
+			+ "  --alphabet n         number of symbols (2)\n"
+			+ "  --accepting r        probability for a state of the target to be accepting (0.5)\n"
+			+ "  --min-length n       minimum length of the examples (0)\n"
+			+ "  --max-length n       maximum length of the examples (12)\n"
+			+ "  --mean-length r      draws short examples more often, with this mean length,\n"
+			+ "                       instead of every length as often";
+
+	/**
+	 * Entry point of the generator.
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		long seed = 1;
+		int states = 10;
+		int alphabet = 2;
+		double accepting = 0.5;
+		int min = 0;
+		int max = 12;
+		double mean = -1;
+		int i = 0;
+		try {
+			while(i + 1 < args.length && args[i].startsWith("--")) {
+				String value = args[i + 1];
+				switch(args[i]) {
+				case "--seed": seed = Long.parseLong(value); break;
+				case "--states": states = Integer.parseInt(value); break;
+				case "--alphabet": alphabet = Integer.parseInt(value); break;
+				case "--accepting": accepting = Double.parseDouble(value); break;
+				case "--min-length": min = Integer.parseInt(value); break;
+				case "--max-length": max = Integer.parseInt(value); break;
+				case "--mean-length": mean = Double.parseDouble(value); break;
+				default: usage();
+				}
+				i += 2;
+			}
+		} catch (NumberFormatException e) {
+			usage();
+		}
+		if(args.length - i != 5) usage();
+
+		try {
+			Generator gen = new Generator(seed, states, alphabet, accepting);
+			Lengths lengths = mean < 0 ? Lengths.uniform(min, max) : Lengths.geometric(min, mean, max);
+			gen.generate(Integer.parseInt(args[i]), Integer.parseInt(args[i + 1]), lengths, new File(args[i + 2]), new File(args[i + 3]));
+			AutomatonWriter.write(gen.getTarget(), args[i + 4]);
+			System.out.println(gen.getPositives() + " positive and " + gen.getNegatives() + " negative examples");
+		} catch (NumberFormatException e) {
+			usage();
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		} catch (IOException | UndefinedFirstStateException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Writes the usage and stops.
+	 */
+	private static void usage() {
+		System.err.println(USAGE);
+		System.exit(2);
+	}
+}
@@ -11,7 +11,10 @@ import loaders.Loader;
 import managers.IdManager;
 import managers.PositionManager;
 import processing.core.PApplet;
+import processing.event.MouseEvent;
 import sequence.Sequence;
+import writers.TextTraceListener;
+import writers.TraceListener;
 import writers.Writer;
 
 public class Launcher extends PApplet{
@@ -44,6 +47,14 @@ public class Launcher extends PApplet{
 	 * Height of the screen.
 	 */
 	public static final float HEIGHT = 600;
+	/**
+	 * Number of moves skipped with the up and down keys.
+	 */
+	private static final int JUMP = 100;
+	/**
+	 * Zoom of one step of the mouse wheel, or of the + and - keys.
+	 */
+	private static final float ZOOM_STEP = 1.1f;
 	
 	public void settings() {
 		size((int)WIDTH, (int)HEIGHT);
@@ -54,7 +65,8 @@ public class Launcher extends PApplet{
 	 */
 	public void setup() {
 		Writer.clear("data/dat");
-		Writer.write("data/dat", "NT;Loaded MCA\n");
+		TraceListener trace = new TextTraceListener("data/dat");
+		trace.move("NT", () -> "Loaded MCA");
 		/**
 		 * Seeting up the MCA
 		 */
@@ -74,7 +86,7 @@ public class Launcher extends PApplet{
 		 * Setting up the pta
 		 */
 		try {
-			pta = PTA.pta(mca.clone());
+			pta = PTA.pta(mca.clone(), trace);
 			PositionManager.setPositions(pta, width, height);
 			IdManager.setIds(pta);
 		} catch (UndefinedFirstStateException e) {
@@ -85,13 +97,17 @@ public class Launcher extends PApplet{
 		 * Setting up the rpni
 		 */
 		try {
-			rpni = RPNI.rpni(pta.clone(), Loader.loadExamples("-"));
+			rpni = RPNI.rpni(pta.clone(), Loader.loadExamples("-", pta.getAlphabet()), trace);
 			PositionManager.setPositions(rpni, width, height);
 			IdManager.setIds(rpni);
 		} catch (UndefinedFirstStateException e) {
 			e.printStackTrace();
 		}
 		
+		/*
+		 * The trace is written in the background, it has to be complete before being read.
+		 */
+		Writer.flush("data/dat");
 		sq = Loader.loadSequence();
 		sq.initAuto(mca.clone());
 
@@ -103,16 +119,21 @@ public class Launcher extends PApplet{
 	public void draw() {
 		background(190);
 		
-		drawer.drawTransitions(sq.getAuto());
-		drawer.drawStates(sq.getAuto());
+		drawer.draw(sq.getAuto(), sq.getVersion());
 		drawer.inform(sq.toString());
 	}
 	
 	/**
 	 * Is a key is pressed then advance in the sequence.
+	 * Right and left go to the next and previous moves, up and down skip JUMP moves forward and backward.
+	 * + and - zoom in and out, 0 goes back to the view without any zoom nor move.
 	 */
 	public void keyPressed() {
-		if(keyCode == RIGHT) {
+		if(key == '+' || key == '-') {
+			drawer.zoom(key == '+' ? ZOOM_STEP : 1 / ZOOM_STEP, width / 2, height / 2);
+		}else if(key == '0') {
+			drawer.resetView();
+		}else if(keyCode == RIGHT) {
 			if(sq.hasNext()) {
 				try {
 					sq.nextAuto();
@@ -128,9 +149,31 @@ public class Launcher extends PApplet{
 					e.printStackTrace();
 				}
 			}
+		}else if(keyCode == UP || keyCode == DOWN) {
+			int i = keyCode == UP ? sq.getIndex() + JUMP : sq.getIndex() - JUMP;
+			try {
+				sq.seek(Math.max(0, Math.min(sq.size(), i)));
+			} catch (UndefinedFirstStateException e) {
+				e.printStackTrace();
+			}
 		}
 	}
 	
+	/**
+	 * Dragging the mouse moves the view.
+	 */
+	public void mouseDragged() {
+		drawer.pan(mouseX - pmouseX, mouseY - pmouseY);
+	}
+	
+	/**
+	 * The mouse wheel zooms in and out around the mouse.
+	 * @param event
+	 */
+	public void mouseWheel(MouseEvent event) {
+		drawer.zoom((float) Math.pow(ZOOM_STEP, -event.getCount()), mouseX, mouseY);
+	}
+	
 	public static void main(String[] args) {
 		PApplet.main("main.Launcher");
 	}
@@ -0,0 +1,147 @@
+package main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import algorithms.Minimizer;
+import algorithms.PTA;
+import algorithms.ParallelChecker;
+import algorithms.RPNI;
+import automaton.Automaton;
+import examples.Examples;
+import exceptions.UndefinedFirstStateException;
+import exceptions.UnknownStateException;
+import loaders.Loader;
+import writers.AutomatonWriter;
+import writers.BinaryTraceListener;
+import writers.BinaryTraceWriter;
+import writers.TextTraceListener;
+import writers.TraceListener;
+import writers.Writer;
+
+/**
+ * Learns an automaton from the command line, without any display.
+ * Usage: Learner [--mca] [--minimize] [--threads n] [--trace file | --binary-trace file] positive negative output
+ * The examples are in the same form as the + and - files, the automaton is written with the AutomatonWriter.
+ * The time taken by every step is written on the standard output.
+ * @author Romain
+ *
+ */
+public class Learner {
+
+	/**
+	 * Usage of the command line.
+	 */
+	private static final String USAGE = "Usage: Learner [--mca] [--minimize] [--threads n] [--trace file | --binary-trace file] positive negative output\n"
+			+ "  --mca                builds the PTA by merging the MCA automaton, as the visualization does,\n"
+			+ "                       instead of inserting the examples in a prefix tree\n"
+			+ "  --minimize           minimizes the learned automaton before writing it\n"
+			+ "  --threads n          tries the mergers of every blue state on n threads at once\n"
+			+ "  --trace file         writes the moves in a text trace (only replayable with --mca)\n"
+			+ "  --binary-trace file  writes the moves in a binary trace, without the messages";
+
+	/**
+	 * Entry point of the learner.
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		boolean mca = false;
+		boolean minimize = false;
+		String trace = null;
+		boolean binary = false;
+		int threads = 1;
+		int i = 0;
+		while(i < args.length && args[i].startsWith("--")) {
+			if(args[i].equals("--mca")) {
+				mca = true;
+				i++;
+			}else if(args[i].equals("--minimize")) {
+				minimize = true;
+				i++;
+			}else if(args[i].equals("--threads") && i + 1 < args.length && args[i + 1].matches("[1-9][0-9]*")) {
+				threads = Integer.parseInt(args[i + 1]);
+				i += 2;
+			}else if((args[i].equals("--trace") || args[i].equals("--binary-trace")) && i + 1 < args.length) {
+				binary = args[i].equals("--binary-trace");
+				trace = args[i + 1];
+				i += 2;
+			}else {
+				System.err.println(USAGE);
+				System.exit(2);
+			}
+		}
+		if(args.length - i != 3) {
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		File pos = new File(args[i]);
+		File neg = new File(args[i + 1]);
+		String out = args[i + 2];
+
+		try {
+			/*
+			 * Nothing is traced unless asked, so that the learning doesn't pay for the visualization.
+			 */
+			TraceListener listener = TraceListener.NONE;
+			BinaryTraceWriter bw = null;
+			if(trace != null && binary) {
+				bw = new BinaryTraceWriter(trace, false);
+				listener = new BinaryTraceListener(bw);
+			}else if(trace != null) {
+				Writer.clear(trace);
+				listener = new TextTraceListener(trace);
+			}
+
+			long start = System.nanoTime();
+			long t = start;
+			Automaton pta;
+			if(mca) {
+				var m = Loader.loadMCA(pos);
+				t = step("load", t, m.getAutos().size() + " positive examples");
+				pta = PTA.pta(m, listener);
+			}else {
+				pta = Loader.loadPTA(pos);
+			}
+			t = step("pta", t, pta.getStates().size() + " states");
+
+			Examples exs = Loader.loadExamples(neg, pta.getAlphabet());
+			t = step("load", t, exs.getExs().size() + " negative examples");
+
+			ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+			Automaton rpni = RPNI.rpni(pta, exs, listener, pool);
+			t = step("rpni", t, rpni.getStates().size() + " states");
+			
+			boolean consistent = ParallelChecker.consistent(rpni, exs, pool != null ? pool : ForkJoinPool.commonPool());
+			if(pool != null) pool.shutdown();
+			t = step("check", t, consistent ? "no negative example accepted" : "a negative example is accepted");
+			
+			if(minimize) {
+				rpni = Minimizer.minimize(rpni);
+				t = step("minimize", t, rpni.getStates().size() + " states");
+			}
+
+			AutomatonWriter.write(rpni, out);
+			if(bw != null) bw.close();
+			if(trace != null && !binary) Writer.close(trace);
+			t = step("write", t, out);
+			step("total", start, "");
+		} catch (UnknownStateException | UndefinedFirstStateException | IOException e) {
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Writes the time taken by a step.
+	 * @param name
+	 * @param from Time the step started, in nanoseconds.
+	 * @param info
+	 * @return long The time now, when the next step starts.
+	 */
+	private static long step(String name, long from, String info) {
+		long now = System.nanoTime();
+		System.out.printf("%-8s %10.3f ms  %s%n", name, (now - from) / 1e6, info);
+		return now;
+	}
+}
@@ -1,9 +1,14 @@
 package managers;
 
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
 import automaton.Automaton;
 import automaton.MCAAutomaton;
 import automaton.State;
+import automaton.Transition;
 import buffer.StateBuffer;
 import exceptions.UndefinedFirstStateException;
 
@@ -38,6 +43,7 @@ public class IdManager {
 	
 	/**
 	 * This is the core of the setId function.
+	 * The states get their ids in depth first order, the states still being browsed are kept on a stack.
 	 * @param s
 	 * @param auto
 	 * @param id
@@ -45,21 +51,29 @@ public class IdManager {
 	 * @return int: The id of the next state.
 	 */
 	private static int setIds(State s, Automaton auto, int id, StateBuffer buff) {
+		Deque<Iterator<Transition<Integer,State>>> stack = new ArrayDeque<>();
 		/*
 		 * Add the state s to the buffer in order to avoid loops.
-		 */
-		buff.add(s);
-		/*
 		 * Set the id of the state, and increment the id.
 		 */
+		buff.add(s);
 		s.setId("" + id);
 		id++;
+		stack.push(auto.getTransitions(s).iterator());
 		/*
-		 * For every transition from the state s, set the id of the pointed state.
+		 * For every transition from a state, set the id of the pointed state, then of the states after it.
 		 */
-		for(var t : auto.getTransitions(s)) {
-			if(!buff.contains(t.getValue())) {
-				id = setIds(t.getValue(), auto, id, buff);
+		while(!stack.isEmpty()) {
+			if(!stack.peek().hasNext()) {
+				stack.pop();
+				continue;
+			}
+			State n = stack.peek().next().getValue();
+			if(!buff.contains(n)) {
+				buff.add(n);
+				n.setId("" + id);
+				id++;
+				stack.push(auto.getTransitions(n).iterator());
 			}
 		}
 		return id;
@@ -1,19 +1,29 @@
 package managers;
 
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
 import automaton.Automaton;
 import automaton.MCAAutomaton;
 import automaton.State;
+import automaton.Transition;
 import buffer.StateBuffer;
 import exceptions.UndefinedFirstStateException;
 
 /**
  * This state sets the position of states in an automaton.
+ * The states are placed along the tree of the depth first search from the first state: a state is one column after
+ * the state it has been reached from, and every state gets as many rows as there are leaves after it in the tree.
+ * The tree is browsed once, so placing the states is linear in the size of the automaton.
  * @author Romain
  *
  */
 public class PositionManager {
-	
+
 	/**
 	 * Sets the positions of the states in an MCAAutomaton.
 	 * @param auto
@@ -22,8 +32,15 @@ public class PositionManager {
 	 * @throws UndefinedFirstStateException When the first state is undefined.
 	 */
 	public static void setPositions(MCAAutomaton auto, float width, float height) throws UndefinedFirstStateException {
-		int h = auto.getHeight();
-		int w = auto.getWidth();
+		List<Layout> layouts = new ArrayList<>();
+		int h = 0;
+		int w = 0;
+		for(var a : auto.getAutos()) {
+			Layout l = new Layout(a.getFirst(), a);
+			layouts.add(l);
+			h += l.getHeight();
+			w = Math.max(w, l.getWidth());
+		}
 		/*
 		 * Calculate the increments between two states.
 		 */
@@ -37,12 +54,12 @@ public class PositionManager {
 		/*
 		 * For every automaton in the MCAAutomaton, sets the position of the states of that automaton.
 		 */
-		for(var a : auto.getAutos()) {
-			setPositions(a.getFirst(), a, posX, posY, incrX, incrY, new StateBuffer());
-			posY += a.getHeight() * incrY;
+		for(var l : layouts) {
+			l.place(posX, posY, incrX, incrY);
+			posY += l.getHeight() * incrY;
 		}
 	}
-	
+
 	/**
 	 * Sets the position of the states in an Automaton.
 	 * @param auto
@@ -51,62 +68,171 @@ public class PositionManager {
 	 * @throws UndefinedFirstStateException When the first state is undefined.
 	 */
 	public static void setPositions(Automaton auto, float width, float height) throws UndefinedFirstStateException {
-		StateBuffer buff = new StateBuffer();
-		State first = auto.getFirst();
-		
-		int h = auto.getHeight();
-		int w = auto.getWidth();
+		Layout l = new Layout(auto.getFirst(), auto);
 		/*
 		 * Calculate the increments between two states.
 		 */
-		float incrX = width/((float) w + 1.0f);
-		float incrY = height/((float) h + 1.0f);
+		float incrX = width/((float) l.getWidth() + 1.0f);
+		float incrY = height/((float) l.getHeight() + 1.0f);
 		/*
 		 * Set the positions starting from the first state in the automaton.
 		 */
-		setPositions(first, auto, incrX, incrY, incrX, incrY, buff);
+		l.place(incrX, incrY, incrX, incrY);
 	}
 
 	/**
-	 * This is the core of the setPositions functions.
-	 * @param s
-	 * @param auto
-	 * @param posX
-	 * @param posY
-	 * @param incrX
-	 * @param incrY
-	 * @param buff
+	 * The tree of the depth first search from a state, with the column and the number of rows of every state in it.
+	 * @author Romain
+	 *
 	 */
-	private static void setPositions(State s, Automaton auto, float posX, float posY, float incrX, float incrY, StateBuffer buff) {
-		/*
-		 * Adds the state s in the buffer in order to avoid loops.
+	private static class Layout {
+		/**
+		 * The states of the tree, every state before the states after it.
 		 */
-		buff.add(s);
-		/*
-		 * Sets the position of the state.
+		private List<State> order;
+		/**
+		 * Index of the state every state has been reached from, -1 for the first one.
 		 */
-		s.setPosX(posX);
-		s.setPosY(posY);
-		/*
-		 * Increments the position X.
+		private int[] parent;
+		/**
+		 * Column of every state, 0 for the first one.
 		 */
-		posX += incrX;
-		/*
-		 * For every state connected to the state s, set the position.
+		private int[] depth;
+		/**
+		 * Number of leaves after every state, which is the number of rows it takes.
 		 */
-		for(var t : auto.getTransitions(s)) {
-			if(!buff.contains(t.getValue())) {
-				setPositions(t.getValue(), auto, posX, posY, incrX, incrY, buff);
-				/*
-				 * Get the height of the automaton created by the next state.
-				 */
-				int h = auto.getHeight(t.getValue());
+		private int[] leaves;
+		/**
+		 * Number of columns of the tree.
+		 */
+		private int width;
+
+		/**
+		 * Constructor for the Layout class. Browses the automaton from the state s, then computes the columns
+		 * and the rows of the states in one pass each.
+		 * @param s
+		 * @param auto
+		 */
+		private Layout(State s, Automaton auto) {
+			order = new ArrayList<>();
+			List<Integer> parents = new ArrayList<>();
+			StateBuffer buff = new StateBuffer();
+			Deque<Frame> stack = new ArrayDeque<>();
+			/*
+			 * Adds the state s in the buffer in order to avoid loops.
+			 */
+			buff.add(s);
+			order.add(s);
+			parents.add(-1);
+			stack.push(new Frame(auto.getTransitions(s).iterator(), 0));
+			while(!stack.isEmpty()) {
+				Frame f = stack.peek();
+				if(!f.it.hasNext()) {
+					stack.pop();
+					continue;
+				}
 				/*
-				 * Increments the position Y based on the height of the next state.
+				 * For every state connected to the state, if it hasn't been reached yet, it is after it in the tree.
 				 */
-				posY += h * incrY;
+				State n = f.it.next().getValue();
+				if(!buff.contains(n)) {
+					buff.add(n);
+					order.add(n);
+					parents.add(f.index);
+					stack.push(new Frame(auto.getTransitions(n).iterator(), order.size() - 1));
+				}
+			}
+
+			int size = order.size();
+			parent = new int[size];
+			depth = new int[size];
+			leaves = new int[size];
+			width = 0;
+			/*
+			 * A state is always after the state it has been reached from, so the columns are known in order.
+			 */
+			for(int i = 0; i < size; i++) {
+				parent[i] = parents.get(i);
+				if(parent[i] >= 0) depth[i] = depth[parent[i]] + 1;
+				width = Math.max(width, depth[i] + 1);
+			}
+			/*
+			 * And the other way around for the leaves: a state that has nothing after it is a leaf.
+			 */
+			for(int i = size - 1; i >= 0; i--) {
+				if(leaves[i] == 0) leaves[i] = 1;
+				if(parent[i] >= 0) leaves[parent[i]] += leaves[i];
 			}
 		}
+
+		/**
+		 * Sets the positions of the states, the first one being at (posX, posY).
+		 * A state is on the first row of its own rows, the states after it share them in the order they have been reached.
+		 * @param posX
+		 * @param posY
+		 * @param incrX
+		 * @param incrY
+		 */
+		private void place(float posX, float posY, float incrX, float incrY) {
+			int size = order.size();
+			int[] row = new int[size];
+			/*
+			 * The next row free for the states after every state.
+			 */
+			int[] next = new int[size];
+			for(int i = 0; i < size; i++) {
+				if(parent[i] >= 0) {
+					row[i] = next[parent[i]];
+					next[parent[i]] += leaves[i];
+				}
+				next[i] = row[i];
+				State s = order.get(i);
+				s.setPosX(posX + depth[i] * incrX);
+				s.setPosY(posY + row[i] * incrY);
+			}
+		}
+
+		/**
+		 * Returns the number of rows of the tree.
+		 * @return int
+		 */
+		private int getHeight() {
+			return leaves[0];
+		}
+
+		/**
+		 * A simple getter for the number of columns of the tree.
+		 * @return int
+		 */
+		private int getWidth() {
+			return width;
+		}
 	}
-	
+
+	/**
+	 * A state whose connected states are being browsed, replacing a recursive call.
+	 * @author Romain
+	 *
+	 */
+	private static class Frame {
+		/**
+		 * The transitions of the state that are left to follow.
+		 */
+		private Iterator<Transition<Integer,State>> it;
+		/**
+		 * Index of the state in the tree.
+		 */
+		private int index;
+
+		/**
+		 * Constructor for the Frame class.
+		 * @param it
+		 * @param index
+		 */
+		private Frame(Iterator<Transition<Integer,State>> it, int index) {
+			this.it = it;
+			this.index = index;
+		}
+	}
+
 }
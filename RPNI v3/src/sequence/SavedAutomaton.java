@@ -0,0 +1,132 @@
+package sequence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import automaton.Alphabet;
+import automaton.Automaton;
+import automaton.State;
+import automaton.Transition;
+import exceptions.UndefinedFirstStateException;
+
+/**
+ * A copy of an automaton that isn't modified anymore, kept by the sequence to go back to it.
+ * Every state is kept with its transitions as one entry, the transitions going to the code of their state rather than to the state itself:
+ * so the entry of a state that hasn't changed can be shared by the copies made one after the other,
+ * and a copy only costs the states modified since the copy it is made from.
+ * @author Romain
+ *
+ */
+class SavedAutomaton {
+	/**
+	 * The states, in the order of the automaton.
+	 */
+	private final Entry[] entries;
+	/**
+	 * Code of the first state, -1 if there is none.
+	 */
+	private final int first;
+	/**
+	 * The alphabet, shared with the automaton.
+	 */
+	private final Alphabet alphabet;
+
+	/**
+	 * Constructor for the SavedAutomaton class.
+	 * @param auto
+	 * @param previous A copy made before, its entries are shared when the states haven't changed. May be null.
+	 */
+	SavedAutomaton(Automaton auto, SavedAutomaton previous) {
+		Map<Integer, Entry> old = new HashMap<>();
+		if(previous != null) {
+			for(var e : previous.entries) {
+				old.put(e.state.getCode(), e);
+			}
+		}
+		entries = new Entry[auto.getStates().size()];
+		int i = 0;
+		for(var s : auto.getStates()) {
+			List<Transition<Integer,State>> trans = auto.getTransitions(s);
+			Entry e = old.get(s.getCode());
+			entries[i++] = e != null && e.matches(s, trans) ? e : new Entry(s, trans);
+		}
+		int code = -1;
+		try {
+			code = auto.getFirst().getCode();
+		} catch (UndefinedFirstStateException e) {
+			/*
+			 * The automaton doesn't have a first state yet, neither does its copy.
+			 */
+		}
+		first = code;
+		alphabet = auto.getAlphabet();
+	}
+
+	/**
+	 * Makes a new automaton from the copy, with the states in the same order as Automaton.clone would have put them.
+	 * Its current state is the first state.
+	 * @return Automaton
+	 */
+	Automaton toAutomaton() {
+		Automaton auto = new Automaton(alphabet);
+		for(var e : entries) {
+			auto.addState(e.state.clone());
+		}
+		for(var e : entries) {
+			List<Transition<Integer,State>> list = auto.getTransitions(auto.getStateFromCode(e.state.getCode()));
+			for(int t = 0; t < e.trans.length; t += 2) {
+				list.add(new Transition<Integer,State>(e.trans[t], auto.getStateFromCode(e.trans[t + 1])));
+			}
+		}
+		if(first >= 0) auto.setFirst(auto.getStateFromCode(first));
+		return auto;
+	}
+
+	/**
+	 * A state and its transitions, as they were when the copy was made.
+	 * @author Romain
+	 *
+	 */
+	private static class Entry {
+		/**
+		 * Copy of the state, never put in an automaton.
+		 */
+		private final State state;
+		/**
+		 * The transitions, as the symbol then the code of the state it goes to.
+		 */
+		private final int[] trans;
+
+		/**
+		 * Constructor for the Entry class.
+		 * @param s
+		 * @param list The transitions of s.
+		 */
+		private Entry(State s, List<Transition<Integer,State>> list) {
+			state = s.clone();
+			trans = new int[list.size() * 2];
+			for(int t = 0; t < list.size(); t++) {
+				trans[2 * t] = list.get(t).getKey();
+				trans[2 * t + 1] = list.get(t).getValue().getCode();
+			}
+		}
+
+		/**
+		 * Is the state with its transitions still the same as in the entry ?
+		 * @param s Has the code of the state of the entry.
+		 * @param list The transitions of s.
+		 * @return boolean
+		 */
+		private boolean matches(State s, List<Transition<Integer,State>> list) {
+			if(list.size() * 2 != trans.length) return false;
+			if(s.getPosX() != state.getPosX() || s.getPosY() != state.getPosY() || s.isVisible() != state.isVisible()
+					|| s.isStart() != state.isStart() || s.isFinish() != state.isFinish()
+					|| s.isBlue() != state.isBlue() || s.isRed() != state.isRed() || !s.getId().equals(state.getId())) return false;
+			for(int t = 0; t < list.size(); t++) {
+				if(trans[2 * t] != list.get(t).getKey() || trans[2 * t + 1] != list.get(t).getValue().getCode()) return false;
+			}
+			return true;
+		}
+	}
+}
@@ -19,6 +19,10 @@ import managers.PositionManager;
  */
 public class Sequence {
 	
+	/**
+	 * Default number of moves in between two checkpoints.
+	 */
+	public static final int CHECKPOINT_INTERVAL = 64;
 	/**
 	 * List of moves generated from the various algorithms.
 	 */
@@ -32,22 +36,55 @@ public class Sequence {
 	 */
 	private Automaton auto;
 	/**
-	 * Previous automaton of the sequence. Used during the rpni algorithm.
+	 * Previous automaton of the sequence, the one a rollback goes back to. Used during the rpni algorithm.
+	 * auto records its modifications since then, so keeping it costs nothing and going back to it only costs the states modified.
+	 * When it can't be kept that way, after a checkpoint, it is a saved copy, null otherwise.
 	 */
-	private Automaton old_auto;
+	private SavedAutomaton old_auto;
 	/**
 	 * Index of the current element on the list.
 	 */
 	private int index;
+	/**
+	 * Copies of auto and old_auto every interval moves, taken the first time the sequence gets there.
+	 * The copy of old_auto is shared by the checkpoints taken until the next snapshot and by old_auto itself,
+	 * and the states that haven't changed are shared by all the copies.
+	 * The checkpoint i is the one before the move i * interval, null if it hasn't been taken yet.
+	 */
+	private List<SavedAutomaton[]> checkpoints;
+	/**
+	 * The last copy made, the next one shares its states that haven't changed.
+	 */
+	private SavedAutomaton saved;
+	/**
+	 * Number of moves in between two checkpoints.
+	 */
+	private int interval;
+	/**
+	 * Number of times the current automaton has changed.
+	 */
+	private int version;
 	
 	/**
 	 * Constructor for the Sequence class.
 	 * Puts the current index to 0.
 	 */
 	public Sequence() {
+		this(CHECKPOINT_INTERVAL);
+	}
+	
+	/**
+	 * Constructor for the Sequence class, with a checkpoint every interval moves.
+	 * Going to any move replays at most interval - 1 moves, a smaller interval keeps more automata in memory.
+	 * @param interval
+	 */
+	public Sequence(int interval) {
 		moves = new ArrayList<>();
 		auto = new Automaton();
+		old_auto = null;
 		index = 0;
+		checkpoints = new ArrayList<>();
+		this.interval = Math.max(1, interval);
 	}
 	
 	/**
@@ -74,6 +111,7 @@ public class Sequence {
 		/*
 		 * This adds all states in the mca automaton in the sequence automaton (auto)
 		 */
+		auto = new Automaton(mca.getAlphabet());
 		for(var a : mca.getAutos()) {
 			for(var s : a.getStates()) {
 				auto.addState(s);
@@ -89,11 +127,16 @@ public class Sequence {
 			}
 		}
 		/*
-		 * Initializes old_auto and this.mca to auto to have a back up.
+		 * Initializes this.mca to auto to have a back up, and starts recording to go back to it.
 		 * We have to clone to avoid modifying all automatons while modifying one.
 		 */
-		old_auto = auto.clone();
 		this.mca = auto.clone();
+		auto.startRecording();
+		old_auto = null;
+		index = 0;
+		checkpoints.clear();
+		saved = null;
+		version++;
 	}
 	
 	/**
@@ -132,11 +175,28 @@ public class Sequence {
 	
 	/**
 	 * Calculates the next automaton based on the sequence of moves.
-	 * Returns the cloned new automaton.
+	 * Returns the current automaton itself, not a copy: it is modified by the next moves, so it has to be cloned to be kept.
 	 * @return Automaton
 	 * @throws UndefinedFirstStateException When the automaton doesn't have a first element.
 	 */
 	public Automaton nextAuto() throws UndefinedFirstStateException {
+		apply();
+		return auto;
+	}
+	
+	/**
+	 * Does the next move on the current automaton.
+	 * A checkpoint is taken before the move if there should be one and it hasn't been taken yet.
+	 * @throws UndefinedFirstStateException When the automaton doesn't have a first element.
+	 */
+	private void apply() throws UndefinedFirstStateException {
+		if(index % interval == 0) {
+			int c = index / interval;
+			while(checkpoints.size() <= c) {
+				checkpoints.add(null);
+			}
+			if(checkpoints.get(c) == null) checkpoints.set(c, checkpoint());
+		}
 		/*
 		 * Get the next move of the sequence.
 		 */
@@ -153,15 +213,16 @@ public class Sequence {
 			State s2 = auto.getStateFromCode(m.getCode2());
 			auto.merge(s1, s2);
 		}else if(m.getType().equals("RB")) {
-			auto = old_auto.clone();
+			restore();
 		}else if(m.getType().equals("TS")) {
-			old_auto = auto.clone();
+			snapshot();
 		}else if(m.getType().equals("FN1")) {
 			auto.setFirst();
 		}else if(m.getType().equals("FN2")) {
-			old_auto = auto.clone();
+			snapshot();
 		}else if(m.getType().equals("SR")) {
 			State s = auto.getStateFromCode(m.getCode1());
+			auto.record(s);
 			s.setRed(true);
 			s.setBlue(false);
 		}else if(m.getType().equals("SB1")) {
@@ -170,40 +231,146 @@ public class Sequence {
 				if(!t.getValue().isRed())
 					t.getValue().setBlue(true);;
 			}
-			old_auto = auto.clone();
+			snapshot();
 		}else if(m.getType().equals("SB2")) {
 			State s = auto.getStateFromCode(m.getCode1());
 			for(var t : auto.getTransitions(s)) {
 				if(!t.getValue().isRed())
 					t.getValue().setBlue(true);;
 			}
-			old_auto = auto.clone();
+			snapshot();
 		}else if(m.getType().equals("ID")) {
+			recordAll();
 			IdManager.setIds(auto);
 		}else if(m.getType().equals("PO")) {
+			recordAll();
 			PositionManager.setPositions(auto, Launcher.WIDTH, Launcher.HEIGHT);
 		}
 		index++;
-		return auto.clone();
+		version++;
+	}
+	
+	/**
+	 * The current automaton becomes the previous one: what has been recorded is kept, and the recording starts again.
+	 */
+	private void snapshot() {
+		auto.commit();
+		auto.startRecording();
+		old_auto = null;
+	}
+	
+	/**
+	 * Goes back to the previous automaton, by reverting what has been recorded or from its copy.
+	 */
+	private void restore() {
+		if(old_auto == null) {
+			auto.rollback();
+		}else {
+			auto = old_auto.toAutomaton();
+		}
+		auto.startRecording();
+	}
+	
+	/**
+	 * Records every state before the ids or the positions of all of them get modified.
+	 */
+	private void recordAll() {
+		for(var s : auto.getStates()) {
+			auto.record(s);
+		}
 	}
 	
 	/**
-	 * Returns the previous automaton in the sequence.
+	 * Copies auto and the previous automaton.
+	 * The previous automaton only exists in the recording of auto, so auto is rolled back to copy it and goes on from the copy of auto:
+	 * from then on old_auto is that copy, until the next snapshot.
+	 * Every copy only costs the states modified since the last one, as the others are shared.
+	 * @return SavedAutomaton[] The copy of auto and the copy of the previous automaton.
+	 */
+	private SavedAutomaton[] checkpoint() {
+		SavedAutomaton current = save();
+		if(old_auto == null) {
+			auto.rollback();
+			old_auto = save();
+			auto = current.toAutomaton();
+			auto.startRecording();
+		}
+		return new SavedAutomaton[] {current, old_auto};
+	}
+	
+	/**
+	 * Copies auto, sharing the states that haven't changed with the last copy.
+	 * @return SavedAutomaton
+	 */
+	private SavedAutomaton save() {
+		saved = new SavedAutomaton(auto, saved);
+		return saved;
+	}
+	
+	/**
+	 * Goes back to the previous automaton in the sequence.
+	 * Returns the current automaton itself, not a copy: it is modified by the next moves, so it has to be cloned to be kept.
 	 * @return Automaton
 	 * @throws UndefinedFirstStateException When the first state is undefined.
 	 */
 	public Automaton prevAuto() throws UndefinedFirstStateException {
-		/*
-		 * What the algorithm does, is start from the start and do every move until index - 1.
-		 */
-		auto = mca.clone();
-		old_auto = auto.clone();
-		int old_i = index;
-		index = 0;
-		for(int i = 0; i < old_i - 1; i++) {
-			nextAuto();
+		seek(Math.max(0, index - 1));
+		return auto;
+	}
+	
+	/**
+	 * Goes to the automaton before the move i, as if the moves had been done one by one from the start.
+	 * The sequence starts from the last checkpoint before i, or from the current automaton when it is closer,
+	 * so at most interval - 1 moves are done again.
+	 * @param i In between 0 and the number of moves.
+	 * @throws UndefinedFirstStateException When the automaton doesn't have a first element.
+	 */
+	public void seek(int i) throws UndefinedFirstStateException {
+		if(i < 0 || i > moves.size()) throw new IndexOutOfBoundsException("Index out of bounds: " + i);
+		int c = Math.min(i / interval, checkpoints.size() - 1);
+		while(c >= 0 && checkpoints.get(c) == null) {
+			c--;
+		}
+		int from = c < 0 ? 0 : c * interval;
+		if(i < index || from > index) {
+			if(c < 0) {
+				auto = mca.clone();
+				old_auto = null;
+			}else {
+				auto = checkpoints.get(c)[0].toAutomaton();
+				old_auto = checkpoints.get(c)[1];
+			}
+			auto.startRecording();
+			index = from;
+			version++;
+		}
+		while(index < i) {
+			apply();
 		}
-		return auto.clone();
+	}
+	
+	/**
+	 * A simple getter for the index of the next move.
+	 * @return int
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	/**
+	 * Returns a number that changes every time the current automaton changes, so that what is computed from it can be kept until then.
+	 * @return int
+	 */
+	public int getVersion() {
+		return version;
+	}
+	
+	/**
+	 * Returns the number of moves.
+	 * @return int
+	 */
+	public int size() {
+		return moves.size();
 	}
 	
 	/**
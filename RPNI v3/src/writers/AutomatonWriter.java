@@ -0,0 +1,69 @@
+package writers;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import automaton.Automaton;
+import automaton.State;
+import exceptions.UndefinedFirstStateException;
+
+/**
+ * Writes an automaton in a text file, with a semi-colon in between each field:
+ * one line S;state;start;finish for every state, then one line T;state;symbol;state for every transition.
+ * The states are numbered from 0 in breadth first order from the first state, start and finish are 1 or 0.
+ * @author Romain
+ *
+ */
+public class AutomatonWriter {
+
+	/**
+	 * Writes the automaton in the given file, replacing what was in it.
+	 * @param auto
+	 * @param fileName
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	public static void write(Automaton auto, String fileName) throws UndefinedFirstStateException {
+		/*
+		 * Numbers the states in breadth first order, states is used as the queue.
+		 * The states that can't be reached from the first state come last.
+		 */
+		Map<State, Integer> ids = new HashMap<>();
+		List<State> states = new ArrayList<>();
+		ids.put(auto.getFirst(), 0);
+		states.add(auto.getFirst());
+		for(int i = 0; i < states.size(); i++) {
+			for(var t : auto.getTransitions(states.get(i))) {
+				if(!ids.containsKey(t.getValue())) {
+					ids.put(t.getValue(), states.size());
+					states.add(t.getValue());
+				}
+			}
+		}
+		for(var s : auto.getStates()) {
+			if(!ids.containsKey(s)) {
+				ids.put(s, states.size());
+				states.add(s);
+			}
+		}
+
+		try {
+			BufferedWriter wr = new BufferedWriter(new FileWriter(fileName));
+			for(var s : states) {
+				wr.write("S;" + ids.get(s) + ";" + (s == auto.getFirst() ? 1 : 0) + ";" + (s.isFinish() ? 1 : 0) + "\n");
+			}
+			for(var s : states) {
+				for(var t : auto.getTransitions(s)) {
+					wr.write("T;" + ids.get(s) + ";" + auto.getAlphabet().getSymbol(t.getKey()) + ";" + ids.get(t.getValue()) + "\n");
+				}
+			}
+			wr.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
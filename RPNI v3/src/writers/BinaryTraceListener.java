@@ -0,0 +1,40 @@
+package writers;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Writes the moves in a binary trace. The messages are only built when the trace keeps them.
+ * @author Romain
+ *
+ */
+public class BinaryTraceListener implements TraceListener {
+	/**
+	 * The binary trace.
+	 */
+	private BinaryTraceWriter wr;
+	
+	/**
+	 * Constructor for the BinaryTraceListener class.
+	 * @param wr
+	 */
+	public BinaryTraceListener(BinaryTraceWriter wr) {
+		this.wr = wr;
+	}
+	
+	public void move(String type, Supplier<String> message) {
+		try {
+			wr.write(type, wr.hasMessages() ? message.get() : null);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	public void move(String type, Supplier<String> message, int code1, int code2) {
+		try {
+			wr.write(type, wr.hasMessages() ? message.get() : null, code1, code2);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
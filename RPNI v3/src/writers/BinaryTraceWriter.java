@@ -0,0 +1,228 @@
+package writers;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a trace in a compact binary form, read back by the BinaryTraceReader.
+ * The file starts with the magic bytes and the version, then every move is:
+ * one byte for the type (TYPES index + 1, or 0 followed by the type as a string), with CODES if the two codes follow
+ * and MESSAGE if the message follows. Codes are zigzag varints, so -1 takes a single byte.
+ * Strings are interned: a varint k > 0 is the string number k - 1 already read, 0 is followed by the length and the
+ * UTF-8 bytes of a new string, which gets the next number while there are less than MAX_STRINGS.
+ * @author Romain
+ *
+ */
+public class BinaryTraceWriter {
+	/**
+	 * First bytes of a binary trace.
+	 */
+	public static final byte[] MAGIC = {'R', 'P', 'N', 'B'};
+	/**
+	 * Version of the format.
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Types of moves that have their own byte.
+	 */
+	public static final String[] TYPES = {"NT", "MO", "MG", "RB", "TS", "FN1", "FN2", "SR", "SB1", "SB2", "ID", "PO"};
+	/**
+	 * The move has two codes.
+	 */
+	public static final int CODES = 0x80;
+	/**
+	 * The move has a message.
+	 */
+	public static final int MESSAGE = 0x40;
+	/**
+	 * Maximum number of interned strings, the next strings are always written in full.
+	 */
+	public static final int MAX_STRINGS = 1 << 16;
+	/**
+	 * The file.
+	 */
+	private OutputStream out;
+	/**
+	 * Are the messages written ?
+	 */
+	private boolean messages;
+	/**
+	 * Number of every string interned.
+	 */
+	private Map<String, Integer> strings;
+	/**
+	 * Byte of every type.
+	 */
+	private Map<String, Integer> types;
+
+	/**
+	 * Constructor for the BinaryTraceWriter class. Writes the header.
+	 * @param out
+	 * @param messages Writes the messages too, the trace is much smaller without them.
+	 * @throws IOException
+	 */
+	public BinaryTraceWriter(OutputStream out, boolean messages) throws IOException {
+		this.out = out;
+		this.messages = messages;
+		this.strings = new HashMap<>();
+		this.types = new HashMap<>();
+		for(int i = 0; i < TYPES.length; i++) {
+			types.put(TYPES[i], i + 1);
+		}
+		out.write(MAGIC);
+		out.write(VERSION);
+	}
+
+	/**
+	 * Constructor for the BinaryTraceWriter class, writing in the given file.
+	 * @param fileName
+	 * @param messages Writes the messages too.
+	 * @throws IOException
+	 */
+	public BinaryTraceWriter(String fileName, boolean messages) throws IOException {
+		this(new BufferedOutputStream(new FileOutputStream(fileName)), messages);
+	}
+
+	/**
+	 * Writes a move that doesn't have any code.
+	 * @param type
+	 * @param message Ignored, and may be null, when the messages aren't written.
+	 * @throws IOException
+	 */
+	public void write(String type, String message) throws IOException {
+		write(type, message, false, -1, -1);
+	}
+
+	/**
+	 * Writes a move with the codes of its two states.
+	 * @param type
+	 * @param message Ignored, and may be null, when the messages aren't written.
+	 * @param code1
+	 * @param code2
+	 * @throws IOException
+	 */
+	public void write(String type, String message, int code1, int code2) throws IOException {
+		write(type, message, true, code1, code2);
+	}
+
+	/**
+	 * Writes a move given as a line of the text trace (type;message or type;message;code1;code2).
+	 * Empty lines are skipped, as when the text trace is loaded.
+	 * @param line
+	 * @throws IOException
+	 */
+	public void writeLine(String line) throws IOException {
+		String[] strs = line.split(";");
+		if(strs.length == 2) {
+			write(strs[0], strs[1]);
+		}else if(!strs[0].equals("")) {
+			write(strs[0], strs[1], Integer.parseInt(strs[2]), Integer.parseInt(strs[3]));
+		}
+	}
+
+	/**
+	 * This is the core of the write functions.
+	 * @param type
+	 * @param message
+	 * @param hasCodes
+	 * @param code1
+	 * @param code2
+	 * @throws IOException
+	 */
+	private void write(String type, String message, boolean hasCodes, int code1, int code2) throws IOException {
+		Integer t = types.get(type);
+		int op = t == null ? 0 : t;
+		if(hasCodes) op |= CODES;
+		if(messages) op |= MESSAGE;
+		out.write(op);
+		if(t == null) writeString(type);
+		if(hasCodes) {
+			writeVarint((code1 << 1) ^ (code1 >> 31));
+			writeVarint((code2 << 1) ^ (code2 >> 31));
+		}
+		if(messages) writeString(message);
+	}
+
+	/**
+	 * Writes the number of the string if it has already been written, the string itself otherwise.
+	 * @param str
+	 * @throws IOException
+	 */
+	private void writeString(String str) throws IOException {
+		Integer i = strings.get(str);
+		if(i != null) {
+			writeVarint(i + 1);
+			return;
+		}
+		writeVarint(0);
+		byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+		writeVarint(bytes.length);
+		out.write(bytes);
+		if(strings.size() < MAX_STRINGS) strings.put(str, strings.size());
+	}
+
+	/**
+	 * Writes a positive int, 7 bits per byte, the high bit telling if another byte follows.
+	 * @param v
+	 * @throws IOException
+	 */
+	private void writeVarint(int v) throws IOException {
+		while((v & ~0x7F) != 0) {
+			out.write((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.write(v);
+	}
+
+	/**
+	 * Are the messages written ?
+	 * @return boolean
+	 */
+	public boolean hasMessages() {
+		return messages;
+	}
+
+	/**
+	 * Writes what is buffered to the file.
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Closes the file.
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Converts a text trace into a binary trace.
+	 * @param textFile
+	 * @param binaryFile
+	 * @param messages Keeps the messages.
+	 */
+	public static void convert(String textFile, String binaryFile, boolean messages) {
+		try {
+			BufferedReader br = new BufferedReader(new FileReader(textFile));
+			BinaryTraceWriter wr = new BinaryTraceWriter(binaryFile, messages);
+			String str;
+			while((str = br.readLine()) != null) {
+				wr.writeLine(str);
+			}
+			br.close();
+			wr.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
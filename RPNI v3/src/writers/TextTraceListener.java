@@ -0,0 +1,32 @@
+package writers;
+
+import java.util.function.Supplier;
+
+/**
+ * Writes the moves in a text file, one per line: type;message or type;message;code1;code2.
+ * This is the form read by Loader.loadSequence.
+ * @author Romain
+ *
+ */
+public class TextTraceListener implements TraceListener {
+	/**
+	 * The file the moves are written in.
+	 */
+	private String fileName;
+	
+	/**
+	 * Constructor for the TextTraceListener class.
+	 * @param fileName
+	 */
+	public TextTraceListener(String fileName) {
+		this.fileName = fileName;
+	}
+	
+	public void move(String type, Supplier<String> message) {
+		Writer.write(fileName, type + ";" + message.get() + "\n");
+	}
+	
+	public void move(String type, Supplier<String> message, int code1, int code2) {
+		Writer.write(fileName, type + ";" + message.get() + ";" + code1 + ";" + code2 + "\n");
+	}
+}
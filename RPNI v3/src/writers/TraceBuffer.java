@@ -0,0 +1,46 @@
+package writers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the moves in memory, to give them to another listener later on.
+ * Used to trace work done out of order, so that the moves can still be given in order.
+ * @author Romain
+ *
+ */
+public class TraceBuffer implements TraceListener {
+	/**
+	 * The moves kept, in order.
+	 */
+	private List<Consumer<TraceListener>> moves;
+
+	/**
+	 * Constructor for the TraceBuffer class.
+	 */
+	public TraceBuffer() {
+		moves = new ArrayList<>();
+	}
+
+	public void move(String type, Supplier<String> message) {
+		String msg = message.get();
+		moves.add(to -> to.move(type, () -> msg));
+	}
+
+	public void move(String type, Supplier<String> message, int code1, int code2) {
+		String msg = message.get();
+		moves.add(to -> to.move(type, () -> msg, code1, code2));
+	}
+
+	/**
+	 * Gives every move kept to the listener, in the order they were made.
+	 * @param to
+	 */
+	public void replay(TraceListener to) {
+		for(var m : moves) {
+			m.accept(to);
+		}
+	}
+}
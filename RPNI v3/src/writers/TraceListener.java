@@ -0,0 +1,40 @@
+package writers;
+
+import java.util.function.Supplier;
+
+/**
+ * Receives the moves made by the algorithms, to trace them.
+ * The messages are only built when the listener asks for them, so that a listener that doesn't keep them costs nothing.
+ * The states keep changing after the move, so a listener that keeps the message has to build it before returning.
+ * @author Romain
+ *
+ */
+public interface TraceListener {
+	
+	/**
+	 * A listener that ignores every move.
+	 */
+	public static final TraceListener NONE = new TraceListener() {
+		public void move(String type, Supplier<String> message) {
+		}
+		
+		public void move(String type, Supplier<String> message, int code1, int code2) {
+		}
+	};
+	
+	/**
+	 * A move that is only informative.
+	 * @param type
+	 * @param message
+	 */
+	public void move(String type, Supplier<String> message);
+	
+	/**
+	 * A move on one or two states, given by their codes (-1 when there is no second state).
+	 * @param type
+	 * @param message
+	 * @param code1
+	 * @param code2
+	 */
+	public void move(String type, Supplier<String> message, int code1, int code2);
+}
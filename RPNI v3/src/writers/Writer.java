@@ -4,33 +4,89 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Writer class to write an item to a file.
+ * Every file is kept open with a queue in front of it. The items are added to the queue and written by a background thread,
+ * so writing an item doesn't wait for the file. Call flush before reading the file.
  * @author Romain
  *
  */
 public class Writer {
+	/**
+	 * Number of items that can wait in the queue of a file, writing waits when the queue is full.
+	 */
+	private static final int CAPACITY = 1 << 14;
+	/**
+	 * Time in milliseconds after which writing to a full queue checks that the thread of the file is still running.
+	 */
+	private static final long TIMEOUT = 100;
+	/**
+	 * The open files.
+	 */
+	private static final Map<String, Sink> sinks = new ConcurrentHashMap<>();
+
+	static {
+		/*
+		 * The background threads are stopped with the program, what is left in the queues is written before.
+		 */
+		Runtime.getRuntime().addShutdownHook(new Thread(Writer::closeAll));
+	}
+
 	/**
 	 * Adds str to the given file.
 	 * @param fileName
 	 * @param str
 	 */
 	public static void write(String fileName, String str) {
-		try {
-			BufferedWriter wr = new BufferedWriter(new FileWriter(fileName, true));
-			wr.write(str);
-			wr.close();
-		} catch (IOException e) {
-			e.printStackTrace();
+		/*
+		 * A file whose thread has stopped is opened again.
+		 */
+		while(!sinks.computeIfAbsent(fileName, Sink::new).write(str));
+	}
+
+	/**
+	 * Waits until everything added to the given file is written in it.
+	 * @param fileName
+	 */
+	public static void flush(String fileName) {
+		Sink sink = sinks.get(fileName);
+		if(sink != null) sink.flush();
+	}
+
+	/**
+	 * Writes everything added to the given file and closes it. It is opened again by the next write.
+	 * @param fileName
+	 */
+	public static void close(String fileName) {
+		Sink sink = sinks.remove(fileName);
+		if(sink != null) sink.close();
+	}
+
+	/**
+	 * Closes every open file.
+	 */
+	public static void closeAll() {
+		for(var fileName : new ArrayList<>(sinks.keySet())) {
+			close(fileName);
 		}
 	}
-	
+
 	/**
 	 * Clears the given file.
 	 * @param fileName
 	 */
 	public static void clear(String fileName) {
+		/*
+		 * What is still in the queue would be written after the file is cleared.
+		 */
+		close(fileName);
 		try {
 			PrintWriter wr = new PrintWriter(fileName);
 			wr.print("");
@@ -39,4 +95,177 @@ public class Writer {
 			e.printStackTrace();
 		}
 	}
+
+	/**
+	 * An open file with the items waiting to be written in it, and the thread that writes them.
+	 * @author Romain
+	 *
+	 */
+	private static class Sink implements Runnable {
+		/**
+		 * Tells the thread to stop, compared by reference.
+		 */
+		private static final String STOP = new String("STOP");
+		/**
+		 * The name of the file.
+		 */
+		private String fileName;
+		/**
+		 * The items waiting to be written.
+		 */
+		private BlockingQueue<String> queue;
+		/**
+		 * The file, null if it couldn't be opened.
+		 */
+		private BufferedWriter wr;
+		/**
+		 * Number of items added, and number of items written.
+		 * An item is counted as added before it is in the queue, so written is never ahead of added.
+		 */
+		private long added;
+		private long written;
+		/**
+		 * Has the thread stopped ? Nothing is written anymore, and the sink isn't in the open files anymore.
+		 */
+		private boolean dead;
+		/**
+		 * The thread writing the items.
+		 */
+		private Thread thread;
+
+		/**
+		 * Constructor for the Sink class. Opens the file and starts the thread.
+		 * @param fileName
+		 */
+		private Sink(String fileName) {
+			this.fileName = fileName;
+			queue = new ArrayBlockingQueue<>(CAPACITY);
+			try {
+				wr = new BufferedWriter(new FileWriter(fileName, true));
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			thread = new Thread(this, "Writer " + fileName);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * Adds the item to the queue, waits if the queue is full.
+		 * The item is counted before it is in the queue, and not anymore if it couldn't be added.
+		 * @param str
+		 * @return boolean: false if the thread has stopped before the item is in the queue, true otherwise,
+		 * even if the wait has been interrupted and the item is lost.
+		 */
+		private boolean write(String str) {
+			synchronized(this) {
+				if(dead) {
+					sinks.remove(fileName, this);
+					return false;
+				}
+				added++;
+			}
+			if(put(str)) return true;
+			synchronized(this) {
+				added--;
+				notifyAll();
+				return !dead;
+			}
+		}
+
+		/**
+		 * Waits until every item added so far is written, or until the thread has stopped.
+		 * An item being added when flush is called may not be added in the end, so it waits for no more than the items added.
+		 */
+		private synchronized void flush() {
+			long target = added;
+			try {
+				while(!dead && written < Math.min(target, added)) {
+					wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Writes every item left, then stops the thread and closes the file.
+		 */
+		private void close() {
+			put(STOP);
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		/**
+		 * Adds the item to the queue, waits if the queue is full, as long as the thread is running.
+		 * @param str
+		 * @return boolean: true if the item is in the queue, false if the thread has stopped or the wait has been interrupted.
+		 */
+		private boolean put(String str) {
+			try {
+				while(!queue.offer(str, TIMEOUT, TimeUnit.MILLISECONDS)) {
+					if(!thread.isAlive()) return false;
+				}
+				return true;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		/**
+		 * Writes the items as they come. Everything waiting in the queue is written at once before flushing the file.
+		 */
+		public void run() {
+			try {
+				drain();
+			} finally {
+				synchronized(this) {
+					dead = true;
+					notifyAll();
+				}
+				sinks.remove(fileName, this);
+			}
+		}
+
+		/**
+		 * Core of run, until the item STOP or an interruption.
+		 */
+		private void drain() {
+			boolean stop = false;
+			while(!stop) {
+				int n = 0;
+				try {
+					String str = queue.take();
+					while(str != null) {
+						if(str == STOP) {
+							stop = true;
+							break;
+						}
+						n++;
+						if(wr != null) wr.write(str);
+						str = queue.poll();
+					}
+					if(wr != null) wr.flush();
+				} catch (IOException e) {
+					e.printStackTrace();
+				} catch (InterruptedException e) {
+					stop = true;
+				}
+				synchronized(this) {
+					written += n;
+					notifyAll();
+				}
+			}
+			try {
+				if(wr != null) wr.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
 }
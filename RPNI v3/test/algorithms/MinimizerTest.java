@@ -0,0 +1,185 @@
+package algorithms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import automaton.Alphabet;
+import automaton.Automaton;
+import automaton.State;
+import automaton.Transition;
+import exceptions.UndefinedFirstStateException;
+
+/**
+ * Compares the Minimizer with a brute force reference: two states are equivalent if they accept the same words
+ * up to the number of states, and the smallest automaton has one state for every class of the states reached
+ * from the first state, the class of the states that accept nothing left aside.
+ * @author Romain
+ *
+ */
+public class MinimizerTest {
+
+	@Test
+	public void randomAutomata() throws UndefinedFirstStateException {
+		Random r = new Random(1);
+		for(int i = 0; i < 3000; i++) {
+			int n = 1 + r.nextInt(8);
+			int k = 1 + r.nextInt(3);
+			check(random(r, n, k), k, n + 1);
+		}
+	}
+
+	@Test
+	public void unreachableStatesAreRemoved() throws UndefinedFirstStateException {
+		Automaton auto = automaton(1, new boolean[] {true, true, false},
+				new int[][] {{0, 0, 0}, {1, 0, 0}, {2, 0, 1}});
+		Automaton min = Minimizer.minimize(auto);
+		assertEquals(1, min.getStates().size());
+		check(auto, 1, 4);
+	}
+
+	@Test
+	public void deadStatesAreRemoved() throws UndefinedFirstStateException {
+		/*
+		 * The first state accepts, then a chain of states that accept nothing.
+		 */
+		int n = 50;
+		boolean[] finals = new boolean[n];
+		finals[0] = true;
+		int[][] trans = new int[n - 1][];
+		for(int i = 0; i < n - 1; i++) {
+			trans[i] = new int[] {i, 0, i + 1};
+		}
+		Automaton min = Minimizer.minimize(automaton(1, finals, trans));
+		assertEquals(1, min.getStates().size());
+		assertTrue(min.getTransitions(min.getFirst()).isEmpty());
+	}
+
+	/**
+	 * Checks that the automaton minimized accepts the same words, is deterministic and is as small as the reference.
+	 * @param auto
+	 * @param k Number of symbols.
+	 * @param length Length of the longest word tried.
+	 * @throws UndefinedFirstStateException When the first state is undefined.
+	 */
+	private static void check(Automaton auto, int k, int length) throws UndefinedFirstStateException {
+		Automaton min = Minimizer.minimize(auto);
+		for(var s : min.getStates()) {
+			assertTrue(min.isDeterministic(s));
+		}
+		List<int[]> words = words(k, length);
+		for(var w : words) {
+			assertEquals(auto.accepts(w), min.accepts(w));
+		}
+		/*
+		 * The reference: the classes of the states reached, as the words they accept.
+		 */
+		Set<State> reached = new HashSet<>();
+		for(var w : words) {
+			State s = auto.run(w);
+			if(s != null) reached.add(s);
+		}
+		Set<String> classes = new HashSet<>();
+		for(var s : reached) {
+			StringBuilder sb = new StringBuilder();
+			boolean any = false;
+			for(var w : words) {
+				boolean a = accepts(auto, s, w);
+				sb.append(a ? '1' : '0');
+				any |= a;
+			}
+			if(any) classes.add(sb.toString());
+		}
+		int expected = classes.isEmpty() ? 1 : classes.size();
+		assertEquals(expected, min.getStates().size());
+	}
+
+	/**
+	 * Is the word accepted from the state s ?
+	 * @param auto
+	 * @param s
+	 * @param word
+	 * @return boolean
+	 */
+	private static boolean accepts(Automaton auto, State s, int[] word) {
+		for(int i = 0; i < word.length && s != null; i++) {
+			s = auto.next(s, word[i]);
+		}
+		return s != null && s.isFinish();
+	}
+
+	/**
+	 * Lists every word of at most the given length.
+	 * @param k Number of symbols.
+	 * @param length
+	 * @return List[int[]]
+	 */
+	private static List<int[]> words(int k, int length) {
+		List<int[]> res = new ArrayList<>();
+		res.add(new int[0]);
+		for(int from = 0; from < res.size(); from++) {
+			int[] w = res.get(from);
+			if(w.length == length) continue;
+			for(int a = 0; a < k; a++) {
+				int[] n = new int[w.length + 1];
+				System.arraycopy(w, 0, n, 0, w.length);
+				n[w.length] = a;
+				res.add(n);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Makes a random deterministic automaton, some transitions missing and some states unreachable.
+	 * @param r
+	 * @param n Number of states.
+	 * @param k Number of symbols.
+	 * @return Automaton
+	 */
+	private static Automaton random(Random r, int n, int k) {
+		boolean[] finals = new boolean[n];
+		List<int[]> trans = new ArrayList<>();
+		for(int s = 0; s < n; s++) {
+			finals[s] = r.nextInt(5) < 2;
+			for(int a = 0; a < k; a++) {
+				if(r.nextInt(10) < 7) trans.add(new int[] {s, a, r.nextInt(n)});
+			}
+		}
+		return automaton(k, finals, trans.toArray(new int[0][]));
+	}
+
+	/**
+	 * Makes an automaton, the first state being the state 0.
+	 * @param k Number of symbols.
+	 * @param finals Is at the end of the automaton, for every state.
+	 * @param trans The transitions, as {from, symbol, to}.
+	 * @return Automaton
+	 */
+	private static Automaton automaton(int k, boolean[] finals, int[][] trans) {
+		Alphabet alphabet = new Alphabet();
+		for(int a = 0; a < k; a++) {
+			alphabet.intern("" + (char) ('a' + a));
+		}
+		Automaton auto = new Automaton(alphabet);
+		State[] states = new State[finals.length];
+		for(int s = 0; s < finals.length; s++) {
+			states[s] = new State(0, 0, "" + s);
+			states[s].setFinish(finals[s]);
+			auto.addState(states[s]);
+		}
+		states[0].setStart(true);
+		for(var t : trans) {
+			auto.getTransitions(states[t[0]]).add(new Transition<Integer,State>(t[1], states[t[2]]));
+		}
+		auto.setFirst(states[0]);
+		return auto;
+	}
+}